@@ -135,7 +135,7 @@ const HumanBeingDialog: React.FC<HumanBeingDialogProps> = ({
 
     try {
       if (isEditMode && humanBeing?.id) {
-        await HumanBeingApi.update(humanBeing.id, data);
+        await HumanBeingApi.update(humanBeing.id, data, humanBeing.version);
         setSnackbarMessage('Human Being updated successfully!');
       } else {
         await HumanBeingApi.create(data);
@@ -19,17 +19,25 @@ import {
   Chip,
 } from '@mui/material';
 import { CloudUpload as CloudUploadIcon, Download as DownloadIcon } from '@mui/icons-material';
-import { ImportApi, ImportResult, ImportHistory } from '../services/api';
+import { ImportApi, ImportResult, ImportHistory, ImportJob } from '../services/api';
 
 interface ImportDialogProps {
   onImportComplete: () => void;
 }
 
-const loadHistory = async (setHistory: (history: ImportHistory[]) => void, setHistoryLoading: (loading: boolean) => void) => {
+const HISTORY_PAGE_SIZE = 20;
+
+const loadHistory = async (
+  setHistory: React.Dispatch<React.SetStateAction<ImportHistory[]>>,
+  setHistoryLoading: (loading: boolean) => void,
+  setHistoryCursor: (cursor: string | null) => void,
+  cursor?: string
+) => {
   setHistoryLoading(true);
   try {
-    const historyData = await ImportApi.getImportHistory();
-    setHistory(historyData);
+    const page = await ImportApi.getImportHistory({ size: HISTORY_PAGE_SIZE, cursor });
+    setHistory((previous) => (cursor ? [...previous, ...page.content] : page.content));
+    setHistoryCursor(page.nextCursor ?? null);
   } catch (err) {
     console.error('Failed to load import history:', err);
   } finally {
@@ -43,6 +51,8 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
   const [result, setResult] = useState<ImportResult | null>(null);
   const [history, setHistory] = useState<ImportHistory[]>([]);
   const [historyLoading, setHistoryLoading] = useState(false);
+  const [historyCursor, setHistoryCursor] = useState<string | null>(null);
+  const [progress, setProgress] = useState<ImportJob | null>(null);
 
   const formatDate = (date: Date | string | number | undefined) => {
     if (!date) return 'N/A';
@@ -73,23 +83,31 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
   };
 
   useEffect(() => {
-    loadHistory(setHistory, setHistoryLoading);
+    loadHistory(setHistory, setHistoryLoading, setHistoryCursor);
   }, []);
 
-  const handleFileUpload = async (event: React.ChangeEvent<HTMLInputElement>) => {
+  const handleFileUpload = (dryRun: boolean) => async (event: React.ChangeEvent<HTMLInputElement>) => {
     const file = event.target.files?.[0];
+    event.target.value = '';
     if (!file) return;
+    await runImport(() => ImportApi.importHumanBeingsFromFile(file, setProgress, dryRun));
+  };
+
+  const handleCommitDryRun = async (token: string) => {
+    await runImport(() => ImportApi.commitDryRun(token, setProgress));
+  };
 
+  const runImport = async (importCall: () => Promise<ImportResult>) => {
     setError(null);
     setResult(null);
     setLoading(true);
 
     try {
       // Use new file upload API that saves file to MinIO
-      const importResult = await ImportApi.importHumanBeingsFromFile(file);
+      const importResult = await importCall();
       setResult(importResult);
 
-      await loadHistory(setHistory, setHistoryLoading);
+      await loadHistory(setHistory, setHistoryLoading, setHistoryCursor);
 
       if (importResult.success) {
         setTimeout(() => {
@@ -97,6 +115,11 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
         }, 2000);
       }
     } catch (err: any) {
+      // a failed validation comes with its report; show it like a result
+      if (err.response?.data?.data?.errors) {
+        setResult(err.response.data as ImportResult);
+        return;
+      }
       let errorMessage = 'Ошибка при импорте файла';
       
       if (err.response?.data?.message) {
@@ -110,30 +133,47 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
       setError(errorMessage);
     } finally {
       setLoading(false);
+      setProgress(null);
     }
   };
 
-  const handleDownloadFile = async (importId: number) => {
+  const saveBlob = (blob: Blob, fileName: string) => {
+    const url = window.URL.createObjectURL(blob);
+    const a = document.createElement('a');
+    a.href = url;
+    a.download = fileName;
+    document.body.appendChild(a);
+    a.click();
+    window.URL.revokeObjectURL(url);
+    document.body.removeChild(a);
+  };
+
+  const handleDownloadFile = async (importId: number, fileKey: string) => {
     try {
       const blob = await ImportApi.downloadImportFile(importId);
-      const url = window.URL.createObjectURL(blob);
-      const a = document.createElement('a');
-      a.href = url;
-      a.download = `import_${importId}.json`;
-      document.body.appendChild(a);
-      a.click();
-      window.URL.revokeObjectURL(url);
-      document.body.removeChild(a);
+      // keys end in the format's extension plus an optional compression suffix, e.g. ".csv.gz"
+      const extension = fileKey.includes('.') ? fileKey.substring(fileKey.indexOf('.')) : '.json';
+      saveBlob(blob, `import_${importId}${extension}`);
     } catch (err: any) {
       console.error('Failed to download file:', err);
       alert('Ошибка при скачивании файла: ' + (err.message || 'Неизвестная ошибка'));
     }
   };
 
+  const handleDownloadErrorReport = async (reportId: string) => {
+    try {
+      const blob = await ImportApi.downloadErrorReport(reportId);
+      saveBlob(blob, `import_errors_${reportId}`);
+    } catch (err: any) {
+      console.error('Failed to download error report:', err);
+      alert('Ошибка при скачивании отчёта: ' + (err.message || 'Неизвестная ошибка'));
+    }
+  };
+
   return (
     <Box sx={{ p: 3 }}>
       <Typography variant="h5" gutterBottom>
-        Импорт HumanBeings из JSON
+        Импорт HumanBeings из JSON, NDJSON или CSV
       </Typography>
 
       {error && (
@@ -145,11 +185,11 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
       {!result && (
         <Box>
           <input
-            accept=".json"
+            accept=".json,.ndjson,.jsonl,.csv,.gz,.zst"
             style={{ display: 'none' }}
             id="file-upload"
             type="file"
-            onChange={handleFileUpload}
+            onChange={handleFileUpload(false)}
             disabled={loading}
           />
           <label htmlFor="file-upload">
@@ -160,15 +200,41 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
               disabled={loading}
               fullWidth
             >
-              {loading ? 'Загрузка...' : 'Выбрать JSON файл'}
+              {loading ? 'Загрузка...' : 'Выбрать файл'}
+            </Button>
+          </label>
+          <input
+            accept=".json,.ndjson,.jsonl,.csv,.gz,.zst"
+            style={{ display: 'none' }}
+            id="file-check"
+            type="file"
+            onChange={handleFileUpload(true)}
+            disabled={loading}
+          />
+          <label htmlFor="file-check">
+            <Button
+              variant="outlined"
+              component="span"
+              disabled={loading}
+              fullWidth
+              sx={{ mt: 1 }}
+            >
+              Проверить файл без импорта
             </Button>
           </label>
         </Box>
       )}
 
       {loading && (
-        <Box display="flex" justifyContent="center" mt={2}>
+        <Box display="flex" flexDirection="column" alignItems="center" mt={2}>
           <CircularProgress />
+          {progress && (
+            <Typography variant="body2" color="text.secondary" sx={{ mt: 1 }}>
+              {progress.phase}: обработано строк {progress.rowsProcessed}
+              {progress.rowsPerSecond > 0 && `, ${Math.round(progress.rowsPerSecond)} строк/с`}
+              {progress.etaSeconds !== null && `, осталось ~${progress.etaSeconds} с`}
+            </Typography>
+          )}
         </Box>
       )}
 
@@ -209,6 +275,16 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
                   </React.Fragment>
                 ))}
               </List>
+              {result.data.errorReportId && (
+                <Button
+                  variant="outlined"
+                  size="small"
+                  startIcon={<DownloadIcon />}
+                  onClick={() => handleDownloadErrorReport(result.data.errorReportId!)}
+                >
+                  Скачать полный отчёт об ошибках
+                </Button>
+              )}
             </Box>
           )}
         </Paper>
@@ -216,6 +292,15 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
 
       {result && (
         <Box sx={{ mt: 2 }}>
+          {result.data.commitToken && (
+            <Button
+              variant="contained"
+              sx={{ mr: 1 }}
+              onClick={() => handleCommitDryRun(result.data.commitToken!)}
+            >
+              Импортировать проверенный файл
+            </Button>
+          )}
           <Button variant="outlined" onClick={() => { setResult(null); setError(null); }}>
             Импортировать еще
           </Button>
@@ -279,7 +364,7 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
                             variant="outlined"
                             size="small"
                             startIcon={<DownloadIcon />}
-                            onClick={() => handleDownloadFile(item.id)}
+                            onClick={() => handleDownloadFile(item.id, item.fileKey!)}
                           >
                             Скачать
                           </Button>
@@ -288,6 +373,15 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
                             Нет файла
                           </Typography>
                         )}
+                        {item.errorReportId && (
+                          <Button
+                            size="small"
+                            startIcon={<DownloadIcon />}
+                            onClick={() => handleDownloadErrorReport(item.errorReportId!)}
+                          >
+                            Ошибки
+                          </Button>
+                        )}
                       </TableCell>
                     </TableRow>
                   ))
@@ -301,11 +395,22 @@ const ImportDialog: React.FC<ImportDialogProps> = ({ onImportComplete }) => {
           <Button 
             variant="outlined" 
             size="small"
-            onClick={() => loadHistory(setHistory, setHistoryLoading)}
+            onClick={() => loadHistory(setHistory, setHistoryLoading, setHistoryCursor)}
             disabled={historyLoading}
           >
             Обновить
           </Button>
+          {historyCursor && (
+            <Button
+              variant="outlined"
+              size="small"
+              sx={{ ml: 1 }}
+              onClick={() => loadHistory(setHistory, setHistoryLoading, setHistoryCursor, historyCursor)}
+              disabled={historyLoading}
+            >
+              Загрузить ещё
+            </Button>
+          )}
         </Box>
       </Box>
     </Box>
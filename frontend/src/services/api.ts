@@ -49,6 +49,7 @@ export interface PaginatedResponse<T> {
   totalPages: number;
   currentPage: number;
   pageSize: number;
+  nextCursor?: string | null;
 }
 
 export class HumanBeingApi {
@@ -102,8 +103,19 @@ export class HumanBeingApi {
   }
 
 
-  static async update(id: number, humanBeing: Partial<HumanBeing>): Promise<HumanBeing> {
-    const response: AxiosResponse<HumanBeing> = await apiClient.put(`/humanbeings/${id}`, humanBeing);
+  static async update(id: number, humanBeing: Partial<HumanBeing>, version?: number): Promise<HumanBeing> {
+    const headers = version !== undefined ? { 'If-Match': `"${version}"` } : undefined;
+    const response: AxiosResponse<HumanBeing> = await apiClient.put(`/humanbeings/${id}`, humanBeing, { headers });
+    return response.data;
+  }
+
+
+  static async patch(id: number, changes: Partial<HumanBeing>, version?: number): Promise<HumanBeing> {
+    const headers: Record<string, string> = { 'Content-Type': 'application/merge-patch+json' };
+    if (version !== undefined) {
+      headers['If-Match'] = `"${version}"`;
+    }
+    const response: AxiosResponse<HumanBeing> = await apiClient.patch(`/humanbeings/${id}`, changes, { headers });
     return response.data;
   }
 
@@ -167,6 +179,9 @@ export interface ImportResult {
     successfullyImported: number;
     failed: number;
     errors?: string[];
+    errorReportId?: string | null;
+    commitToken?: string | null;
+    commitTokenExpiresAt?: string | null;
   };
 }
 
@@ -179,30 +194,88 @@ export interface ImportHistory {
   failedCount: number;
   errorMessage: string | null;
   fileKey: string | null;
+  errorReportId: string | null;
   createdAt: string;
 }
 
+export interface ImportJob {
+  id: string;
+  phase: 'QUEUED' | 'STORING' | 'PREPARING' | 'IMPORTING' | 'COMMITTING' | 'COMPLETED' | 'FAILED';
+  rowsProcessed: number;
+  bytesRead: number;
+  totalBytes: number;
+  rowsPerSecond: number;
+  etaSeconds: number | null;
+  importHistoryId: number | null;
+  resultStatus: number | null;
+  result: any;
+  createdAt: string;
+  finishedAt: string | null;
+}
+
 export class ImportApi {
   static async importHumanBeings(humanBeings: CreateHumanBeingRequest[]): Promise<ImportResult> {
     const response: AxiosResponse<ImportResult> = await apiClient.post('/import/humanbeings', humanBeings);
     return response.data;
   }
 
-  static async importHumanBeingsFromFile(file: File): Promise<ImportResult> {
+  // The upload returns as soon as the file is stored; the import itself runs as a job we poll,
+  // so large files are not cut off by the request timeout.
+  // With dryRun the file is only validated; a passing result carries the commitToken for commitDryRun.
+  static async importHumanBeingsFromFile(
+    file: File,
+    onProgress?: (job: ImportJob) => void,
+    dryRun: boolean = false
+  ): Promise<ImportResult> {
     const formData = new FormData();
     formData.append('file', file);
     
-    const response: AxiosResponse<ImportResult> = await apiClient.post('/import/humanbeings/file', formData, {
+    const response: AxiosResponse<{ data: ImportJob }> = await apiClient.post('/import/humanbeings/file', formData, {
+      params: { async: true, dryRun },
       headers: {
         'Content-Type': 'multipart/form-data',
       },
       timeout: 60000, // 60 seconds for file upload
     });
+    return ImportApi.awaitImportJob(response.data.data, onProgress);
+  }
+
+  // Imports the rows of a passed dry run; nothing is uploaded again.
+  static async commitDryRun(token: string, onProgress?: (job: ImportJob) => void): Promise<ImportResult> {
+    const response: AxiosResponse<{ data: ImportJob }> = await apiClient.post('/import/humanbeings/commit', null, {
+      params: { token, async: true },
+    });
+    return ImportApi.awaitImportJob(response.data.data, onProgress);
+  }
+
+  private static async awaitImportJob(started: ImportJob, onProgress?: (job: ImportJob) => void): Promise<ImportResult> {
+    let job = started;
+    while (!job.finishedAt) {
+      onProgress?.(job);
+      await new Promise(resolve => setTimeout(resolve, 1000));
+      job = await ImportApi.getImportJob(job.id);
+    }
+    if (job.resultStatus !== null && job.resultStatus >= 400) {
+      // same shape as an axios error, so callers handle both alike
+      throw Object.assign(new Error(job.result?.message ?? 'Import failed'), { response: { data: job.result } });
+    }
+    return job.result as ImportResult;
+  }
+
+  static async getImportJob(jobId: string): Promise<ImportJob> {
+    const response: AxiosResponse<ImportJob> = await apiClient.get(`/import/jobs/${jobId}`);
     return response.data;
   }
 
-  static async getImportHistory(): Promise<ImportHistory[]> {
-    const response: AxiosResponse<ImportHistory[]> = await apiClient.get('/import/history');
+  static async getImportHistory(params: {
+    size?: number;
+    cursor?: string;
+    status?: string;
+    username?: string;
+    from?: string;
+    to?: string;
+  } = {}): Promise<PaginatedResponse<ImportHistory>> {
+    const response: AxiosResponse<PaginatedResponse<ImportHistory>> = await apiClient.get('/import/history', { params });
     return response.data;
   }
 
@@ -212,6 +285,13 @@ export class ImportApi {
     });
     return response.data;
   }
+
+  static async downloadErrorReport(reportId: string): Promise<Blob> {
+    const response: AxiosResponse<Blob> = await apiClient.get(`/import/error-reports/${reportId}`, {
+      responseType: 'blob',
+    });
+    return response.data;
+  }
 }
 
 export default HumanBeingApi;
\ No newline at end of file
@@ -36,6 +36,7 @@ export interface HumanBeing {
   soundtrackName: string;
   minutesOfWaiting: number;
   weaponType: WeaponType;
+  version?: number;
 }
 
 export interface ApiError {
@@ -0,0 +1,81 @@
+package com.humanbeingmanager.benchmark;
+
+import com.humanbeingmanager.dto.CarDto;
+import com.humanbeingmanager.dto.CoordinatesDto;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import com.humanbeingmanager.validator.BusinessRulesValidator;
+import com.humanbeingmanager.validator.ValidationErrors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-row cost of the import validation pass (ImportService row checks via validateImportRow).
+ * Run with: mvn -Pbenchmark -Dskip.installnodenpm -Dskip.npm compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportValidationBenchmark {
+
+    private static final int ROWS = 1024;
+
+    /** Share of rows that break at least one rule, in percent. */
+    @Param({"0", "10", "100"})
+    private int invalidPercent;
+
+    private final BusinessRulesValidator validator = new BusinessRulesValidator();
+    private final List<HumanBeingDto> rows = new ArrayList<>(ROWS);
+    private final ValidationErrors errors = new ValidationErrors();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < ROWS; i++) {
+            HumanBeingDto dto = new HumanBeingDto();
+            dto.setName("Human " + i);
+            dto.setCoordinates(new CoordinatesDto(random.nextInt(999) + 1, random.nextDouble() * 999 + 0.5));
+            dto.setCar(new CarDto(null, "Lada-" + (i % 16), i % 2 == 0));
+            dto.setMood("CALM");
+            dto.setImpactSpeed(25.0f);
+            dto.setSoundtrackName("Track_" + i);
+            dto.setMinutesOfWaiting((long) (i % 500));
+            dto.setWeaponType("MACHINE_GUN");
+            if (random.nextInt(100) < invalidPercent) {
+                dto.setName("Bad/name#" + i);
+                dto.setMood("furious");
+                dto.setImpactSpeed(5.0f);
+            }
+            rows.add(dto);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void validateRows(Blackhole blackhole) {
+        for (HumanBeingDto row : rows) {
+            validator.validateImportRow(row, errors);
+            if (!errors.isEmpty()) {
+                blackhole.consume(errors.render());
+                errors.clear();
+            }
+        }
+    }
+}
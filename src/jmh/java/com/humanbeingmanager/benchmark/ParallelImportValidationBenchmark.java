@@ -0,0 +1,83 @@
+package com.humanbeingmanager.benchmark;
+
+import com.humanbeingmanager.dto.CarDto;
+import com.humanbeingmanager.dto.CoordinatesDto;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import com.humanbeingmanager.validator.ParallelRowValidator;
+import com.humanbeingmanager.validator.ValidationErrors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole-batch time of the row validation pass, one thread against the fork-join pass on every core,
+ * as the batch grows. The ratio of the two scores is the speedup for that row count.
+ * Run with: mvn -Pbenchmark -Dskip.installnodenpm -Dskip.npm compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelImportValidationBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    private final List<HumanBeingDto> batch = new ArrayList<>();
+    private ParallelRowValidator serial;
+    private ParallelRowValidator parallel;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < rows; i++) {
+            HumanBeingDto dto = new HumanBeingDto();
+            dto.setName("Human " + i);
+            dto.setCoordinates(new CoordinatesDto(random.nextInt(999) + 1, random.nextDouble() * 999 + 0.5));
+            dto.setCar(new CarDto(null, "Lada-" + (i % 16), i % 2 == 0));
+            dto.setMood("CALM");
+            dto.setImpactSpeed(25.0f);
+            dto.setSoundtrackName("Track_" + i);
+            dto.setMinutesOfWaiting((long) (i % 500));
+            dto.setWeaponType("MACHINE_GUN");
+            // a few bad rows so rendering is part of the cost
+            if (random.nextInt(100) < 5) {
+                dto.setName("Bad/name#" + i);
+                dto.setMood("furious");
+            }
+            batch.add(dto);
+        }
+        serial = new ParallelRowValidator(1);
+        parallel = new ParallelRowValidator(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallel.shutdown();
+    }
+
+    @Benchmark
+    public ValidationErrors[] serial() {
+        return serial.validate(batch);
+    }
+
+    @Benchmark
+    public ValidationErrors[] parallel() {
+        return parallel.validate(batch);
+    }
+}
@@ -19,6 +19,35 @@ public class DatabaseMigration {
     
     private static final Logger LOGGER = Logger.getLogger(DatabaseMigration.class.getName());
     
+    private static final String[] MIGRATIONS = {
+        "ALTER TABLE import_history ADD COLUMN IF NOT EXISTS file_key VARCHAR(255)",
+        // optimistic locking: rows written before @Version existed start at version 1
+        "ALTER TABLE human_beings ADD COLUMN IF NOT EXISTS version BIGINT",
+        "UPDATE human_beings SET version = 1 WHERE version IS NULL",
+        "ALTER TABLE cars ADD COLUMN IF NOT EXISTS version BIGINT",
+        "UPDATE cars SET version = 1 WHERE version IS NULL",
+        // natural-key lookups for car deduplication; not unique because older rows may repeat
+        "CREATE INDEX IF NOT EXISTS idx_cars_name_cool ON cars (name, cool)",
+        // coordinate uniqueness lookups, single and set-based
+        "CREATE INDEX IF NOT EXISTS idx_human_beings_coordinates ON human_beings (x, y)",
+        // chunked-commit imports
+        "ALTER TABLE import_history ADD COLUMN IF NOT EXISTS chunk_size INTEGER",
+        "ALTER TABLE import_history ADD COLUMN IF NOT EXISTS file_hash VARCHAR(64)",
+        // COPY target of bulk imports; rows live only inside the loading transaction, so no WAL is needed
+        "CREATE UNLOGGED TABLE IF NOT EXISTS import_staging (" +
+            "load_id VARCHAR(64) NOT NULL, row_no INTEGER NOT NULL, name TEXT, x INTEGER, y DOUBLE PRECISION, " +
+            "creation_date TIMESTAMP, real_hero BOOLEAN, has_toothpick BOOLEAN, car_id BIGINT, car_name TEXT, " +
+            "car_cool BOOLEAN, mood VARCHAR(32), impact_speed REAL, soundtrack_name TEXT, " +
+            "minutes_of_waiting BIGINT, weapon_type VARCHAR(32))",
+        // every statement of a load reads only its own rows, past what other loads left behind
+        "CREATE INDEX IF NOT EXISTS idx_import_staging_load ON import_staging (load_id, row_no)",
+        // keyset pages of the import history, newest first, unfiltered and per filter column
+        "CREATE INDEX IF NOT EXISTS idx_import_history_created ON import_history (created_at DESC, id DESC)",
+        "CREATE INDEX IF NOT EXISTS idx_import_history_status_created ON import_history (status, created_at DESC, id DESC)",
+        "CREATE INDEX IF NOT EXISTS idx_import_history_username_created ON import_history (username, created_at DESC, id DESC)",
+        "ALTER TABLE import_history ADD COLUMN IF NOT EXISTS error_report_id VARCHAR(64)"
+    };
+    
     @Resource(lookup = "java:/PostgresDruidDS")
     private DataSource dataSource;
     
@@ -31,16 +60,20 @@ public class DatabaseMigration {
             try (Connection conn = dataSource.getConnection();
                  Statement stmt = conn.createStatement()) {
                 
-                stmt.execute("ALTER TABLE import_history ADD COLUMN IF NOT EXISTS file_key VARCHAR(255)");
-                LOGGER.info("Migration completed: file_key column added to import_history table");
-                
-            } catch (Exception e) {
-                String errorMsg = e.getMessage();
-                if (errorMsg != null && (errorMsg.contains("already exists") || errorMsg.contains("duplicate"))) {
-                    LOGGER.info("Migration objects already exist - skipping: " + errorMsg);
-                } else {
-                    LOGGER.log(Level.WARNING, "Migration error: " + errorMsg, e);
+                for (String migration : MIGRATIONS) {
+                    try {
+                        stmt.execute(migration);
+                        LOGGER.info("Migration completed: " + migration);
+                    } catch (Exception e) {
+                        String errorMsg = e.getMessage();
+                        if (errorMsg != null && (errorMsg.contains("already exists") || errorMsg.contains("duplicate"))) {
+                            LOGGER.info("Migration objects already exist - skipping: " + errorMsg);
+                        } else {
+                            LOGGER.log(Level.WARNING, "Migration error: " + errorMsg, e);
+                        }
+                    }
                 }
+                
             }
             
             LOGGER.info("Database migration finished");
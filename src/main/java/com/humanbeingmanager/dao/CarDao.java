@@ -22,6 +22,16 @@ public class CarDao {
         return Optional.ofNullable(car);
     }
 
+    /** Oldest car with exactly this name and coolness, served by the (name, cool) index. */
+    public Optional<Car> findByNaturalKey(String name, boolean cool) {
+        TypedQuery<Car> query = entityManager.createQuery(
+            "SELECT c FROM Car c WHERE c.name = :name AND c.cool = :cool ORDER BY c.id", Car.class);
+        query.setParameter("name", name);
+        query.setParameter("cool", cool);
+        query.setMaxResults(1);
+        return query.getResultList().stream().findFirst();
+    }
+
     public List<Car> findAll() {
         TypedQuery<Car> query = entityManager.createQuery("SELECT c FROM Car c", Car.class);
         return query.getResultList();
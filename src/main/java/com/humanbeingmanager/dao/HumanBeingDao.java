@@ -1,11 +1,14 @@
 package com.humanbeingmanager.dao;
 
+import com.humanbeingmanager.entity.Coordinates;
 import com.humanbeingmanager.entity.HumanBeing;
 import jakarta.ejb.Stateless;
 import jakarta.persistence.*;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.StringJoiner;
 
 @Stateless
 public class HumanBeingDao {
@@ -16,6 +19,17 @@ public class HumanBeingDao {
             "impactSpeed", "soundtrackName", "minutesOfWaiting", "weaponType"
     );
 
+    private static final int COORDINATES_PER_STATEMENT = 5000;
+
+    private static final String EXISTING_COORDINATES_SQL =
+        "SELECT DISTINCT h.x, h.y FROM human_beings h " +
+        "JOIN unnest(string_to_array(?1, ',')::integer[], string_to_array(?2, ',')::double precision[]) AS c(x, y) " +
+        "ON h.x = c.x AND h.y = c.y";
+
+    private static final String REPEATED_COORDINATES_SQL =
+        "SELECT DISTINCT h.x, h.y FROM human_beings h WHERE h.id BETWEEN ?1 AND ?2 " +
+        "AND EXISTS (SELECT 1 FROM human_beings o WHERE o.x = h.x AND o.y = h.y AND o.id <> h.id)";
+
     @PersistenceContext(unitName = "HumanBeingPU", type = PersistenceContextType.TRANSACTION)
     private EntityManager entityManager;
 
@@ -160,10 +174,68 @@ public class HumanBeingDao {
         return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
     }
 
+    /**
+     * Which of the given coordinate pairs are already stored, looked up set-wise: each statement joins
+     * up to {@link #COORDINATES_PER_STATEMENT} pairs passed as two arrays against the (x, y) index.
+     * Callers hold the coordinate locks or check again under them, so no row locks are taken here.
+     */
+    public Set<Coordinates> findExistingCoordinates(List<Coordinates> coordinates) {
+        Set<Coordinates> existing = new HashSet<>();
+        for (int from = 0; from < coordinates.size(); from += COORDINATES_PER_STATEMENT) {
+            List<Coordinates> chunk = coordinates.subList(from, Math.min(coordinates.size(), from + COORDINATES_PER_STATEMENT));
+            StringJoiner xs = new StringJoiner(",");
+            StringJoiner ys = new StringJoiner(",");
+            for (Coordinates c : chunk) {
+                xs.add(Integer.toString(c.getX()));
+                ys.add(Double.toString(c.getY()));
+            }
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery(EXISTING_COORDINATES_SQL)
+                .setParameter(1, xs.toString())
+                .setParameter(2, ys.toString())
+                .getResultList();
+            for (Object[] row : rows) {
+                existing.add(new Coordinates(((Number) row[0]).intValue(), ((Number) row[1]).doubleValue()));
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Coordinate pairs that a row with an id in [fromId, toId] shares with any other row.
+     * Rows a caller wrote without coordinate locks are checked this way once it holds them.
+     */
+    public Set<Coordinates> findRepeatedCoordinates(long fromId, long toId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(REPEATED_COORDINATES_SQL)
+            .setParameter(1, fromId)
+            .setParameter(2, toId)
+            .getResultList();
+        Set<Coordinates> repeated = new HashSet<>();
+        for (Object[] row : rows) {
+            repeated.add(new Coordinates(((Number) row[0]).intValue(), ((Number) row[1]).doubleValue()));
+        }
+        return repeated;
+    }
+
     public void refresh(HumanBeing humanBeing) {
         entityManager.refresh(humanBeing);
     }
 
+    public void flush() {
+        entityManager.flush();
+    }
+
+    /** Bumps the version at the next flush although no column of the row changed, e.g. when only its car was edited. */
+    public void forceVersionIncrement(HumanBeing humanBeing) {
+        entityManager.lock(humanBeing, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    /** Detaches everything loaded so far; callers flush first. */
+    public void clear() {
+        entityManager.clear();
+    }
+
 
     public Long getSumOfMinutesWaiting() {
         TypedQuery<Long> query = entityManager.createQuery(
@@ -0,0 +1,84 @@
+package com.humanbeingmanager.dao;
+
+import com.humanbeingmanager.entity.IdempotencyRecord;
+import jakarta.ejb.Stateless;
+import jakarta.persistence.*;
+import java.util.Date;
+import java.util.Optional;
+
+@Stateless
+public class IdempotencyRecordDao {
+
+    @PersistenceContext(unitName = "HumanBeingPU", type = PersistenceContextType.TRANSACTION)
+    private EntityManager entityManager;
+
+    /**
+     * Inserts the record unless the key is already taken; concurrent retries race on the primary key.
+     * @return true if this call reserved the key
+     */
+    public boolean insertIfAbsent(IdempotencyRecord record) {
+        int inserted = entityManager.createNativeQuery(
+                "INSERT INTO idempotency_keys (idem_key, request_hash, state, created_at, expires_at) " +
+                "VALUES (?1, ?2, ?3, ?4, ?5) ON CONFLICT (idem_key) DO NOTHING")
+            .setParameter(1, record.getKey())
+            .setParameter(2, record.getRequestHash())
+            .setParameter(3, record.getState())
+            .setParameter(4, record.getCreatedAt(), TemporalType.TIMESTAMP)
+            .setParameter(5, record.getExpiresAt(), TemporalType.TIMESTAMP)
+            .executeUpdate();
+        return inserted == 1;
+    }
+
+    public Optional<IdempotencyRecord> findByKey(String key) {
+        return Optional.ofNullable(entityManager.find(IdempotencyRecord.class, key));
+    }
+
+    /**
+     * Deletes the record only while it is still the one the caller read, so two retries that both
+     * found it stale cannot both take the key over.
+     * @return true if this call deleted it
+     */
+    public boolean deleteIfUnchanged(String key, Date createdAt, String state) {
+        return entityManager.createQuery(
+                "DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.createdAt = :createdAt AND r.state = :state")
+            .setParameter("key", key)
+            .setParameter("createdAt", createdAt, TemporalType.TIMESTAMP)
+            .setParameter("state", state)
+            .executeUpdate() == 1;
+    }
+
+    /** Stores the response on the reservation made at {@code createdAt}, if the key is still held by it. */
+    public boolean complete(String key, Date createdAt, int status, String body, String etag, Date expiresAt) {
+        return entityManager.createQuery(
+                "UPDATE IdempotencyRecord r SET r.state = :completed, r.responseStatus = :status, " +
+                "r.responseBody = :body, r.responseEtag = :etag, r.expiresAt = :expiresAt " +
+                "WHERE r.key = :key AND r.createdAt = :createdAt AND r.state = :inProgress")
+            .setParameter("completed", IdempotencyRecord.COMPLETED)
+            .setParameter("status", status)
+            .setParameter("body", body)
+            .setParameter("etag", etag)
+            .setParameter("expiresAt", expiresAt, TemporalType.TIMESTAMP)
+            .setParameter("key", key)
+            .setParameter("createdAt", createdAt, TemporalType.TIMESTAMP)
+            .setParameter("inProgress", IdempotencyRecord.IN_PROGRESS)
+            .executeUpdate() == 1;
+    }
+
+    /** Extends the lease of the reservation made at {@code createdAt} while its request still runs. */
+    public boolean renew(String key, Date createdAt, Date expiresAt) {
+        return entityManager.createQuery(
+                "UPDATE IdempotencyRecord r SET r.expiresAt = :expiresAt " +
+                "WHERE r.key = :key AND r.createdAt = :createdAt AND r.state = :inProgress")
+            .setParameter("expiresAt", expiresAt, TemporalType.TIMESTAMP)
+            .setParameter("key", key)
+            .setParameter("createdAt", createdAt, TemporalType.TIMESTAMP)
+            .setParameter("inProgress", IdempotencyRecord.IN_PROGRESS)
+            .executeUpdate() == 1;
+    }
+
+    public int deleteExpired(Date now) {
+        return entityManager.createQuery("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+                            .setParameter("now", now, TemporalType.TIMESTAMP)
+                            .executeUpdate();
+    }
+}
@@ -0,0 +1,26 @@
+package com.humanbeingmanager.dao;
+
+import com.humanbeingmanager.entity.ImportChunk;
+import jakarta.ejb.Stateless;
+import jakarta.persistence.*;
+import java.util.HashSet;
+import java.util.Set;
+
+@Stateless
+public class ImportChunkDao {
+
+    @PersistenceContext(unitName = "HumanBeingPU", type = PersistenceContextType.TRANSACTION)
+    private EntityManager entityManager;
+
+    public ImportChunk create(ImportChunk chunk) {
+        entityManager.persist(chunk);
+        return chunk;
+    }
+
+    public Set<Integer> findCommittedIndexes(Long importId) {
+        TypedQuery<Integer> query = entityManager.createQuery(
+            "SELECT c.chunkIndex FROM ImportChunk c WHERE c.importId = :importId", Integer.class);
+        query.setParameter("importId", importId);
+        return new HashSet<>(query.getResultList());
+    }
+}
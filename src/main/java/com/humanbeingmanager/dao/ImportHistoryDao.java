@@ -3,6 +3,9 @@ package com.humanbeingmanager.dao;
 import com.humanbeingmanager.entity.ImportHistory;
 import jakarta.ejb.Stateless;
 import jakarta.persistence.*;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +20,10 @@ public class ImportHistoryDao {
         return history;
     }
 
+    public ImportHistory update(ImportHistory history) {
+        return entityManager.merge(history);
+    }
+
     public List<ImportHistory> findAll() {
         TypedQuery<ImportHistory> query = entityManager.createQuery(
             "SELECT ih FROM ImportHistory ih ORDER BY ih.createdAt DESC", ImportHistory.class);
@@ -31,6 +38,74 @@ public class ImportHistoryDao {
         return query.getResultList();
     }
 
+    /**
+     * One keyset page, newest first. Filters left {@code null} are not applied.
+     * @param afterCreatedAt with {@code afterId}, the last row of the previous page; {@code null} for the first page
+     * @param from           inclusive lower bound of {@code createdAt}
+     * @param to             exclusive upper bound of {@code createdAt}
+     */
+    @SuppressWarnings("unchecked")
+    public List<ImportHistory> findPage(String status, String username, Date from, Date to,
+                                       Date afterCreatedAt, Long afterId, int limit) {
+        // native for the row comparison, which PostgreSQL matches against the (created_at, id) indexes
+        StringBuilder sql = new StringBuilder("SELECT * FROM import_history WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, status, username, from, to);
+        if (afterCreatedAt != null) {
+            sql.append(" AND (created_at, id) < (?").append(params.size() + 1)
+               .append(", ?").append(params.size() + 2).append(")");
+            params.add(new Timestamp(afterCreatedAt.getTime()));
+            params.add(afterId);
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ").append(limit);
+
+        Query query = entityManager.createNativeQuery(sql.toString(), ImportHistory.class);
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        return query.getResultList();
+    }
+
+    public long countFiltered(String status, String username, Date from, Date to) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM import_history WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, status, username, from, to);
+        Query query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> params,
+                                      String status, String username, Date from, Date to) {
+        if (status != null) {
+            params.add(status);
+            sql.append(" AND status = ?").append(params.size());
+        }
+        if (username != null) {
+            params.add(username);
+            sql.append(" AND username = ?").append(params.size());
+        }
+        if (from != null) {
+            params.add(new Timestamp(from.getTime()));
+            sql.append(" AND created_at >= ?").append(params.size());
+        }
+        if (to != null) {
+            params.add(new Timestamp(to.getTime()));
+            sql.append(" AND created_at < ?").append(params.size());
+        }
+    }
+
+    /** Unlinks the error reports of imports recorded before {@code before}, whose reports have been purged. */
+    public int clearErrorReportIds(Date before) {
+        return entityManager.createQuery(
+                "UPDATE ImportHistory ih SET ih.errorReportId = NULL " +
+                "WHERE ih.errorReportId IS NOT NULL AND ih.createdAt < :before")
+            .setParameter("before", before, TemporalType.TIMESTAMP)
+            .executeUpdate();
+    }
+
     public Optional<ImportHistory> findById(Long id) {
         ImportHistory history = entityManager.find(ImportHistory.class, id);
         return Optional.ofNullable(history);
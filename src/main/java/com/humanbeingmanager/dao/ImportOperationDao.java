@@ -0,0 +1,97 @@
+package com.humanbeingmanager.dao;
+
+import com.humanbeingmanager.entity.ImportOperation;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.*;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The two-phase commit log. Entries are written in transactions of their own, so the log survives
+ * whatever happens to the import; the one exception is the commit decision, which is logged together
+ * with the imported rows.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+public class ImportOperationDao {
+
+    @PersistenceContext(unitName = "HumanBeingPU", type = PersistenceContextType.TRANSACTION)
+    private EntityManager entityManager;
+
+    public ImportOperation create(ImportOperation operation) {
+        entityManager.persist(operation);
+        return operation;
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public Optional<ImportOperation> findByTransactionId(String transactionId) {
+        List<ImportOperation> found = entityManager.createQuery(
+                "SELECT o FROM ImportOperation o WHERE o.transactionId = :transactionId", ImportOperation.class)
+            .setParameter("transactionId", transactionId)
+            .getResultList();
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    /**
+     * Moves the entry from {@code expected} to {@code next}, only if no one else moved it first.
+     * @param tempFileKey recorded with the step when not {@code null}
+     * @return true if this call made the step
+     */
+    public boolean compareAndSet(String transactionId, String expected, String next, String tempFileKey) {
+        return updateStatus(transactionId, expected, next, tempFileKey);
+    }
+
+    /** {@link #compareAndSet} in the caller's transaction, so the step commits or rolls back with it. */
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public boolean compareAndSetInCurrentTransaction(String transactionId, String expected, String next) {
+        return updateStatus(transactionId, expected, next, null);
+    }
+
+    /** Heartbeat of the coordinating node, so its running transactions are not taken for abandoned. */
+    public int touch(Collection<String> transactionIds) {
+        return entityManager.createQuery(
+                "UPDATE ImportOperation o SET o.updatedAt = :now WHERE o.transactionId IN :transactionIds")
+            .setParameter("now", new Date(), TemporalType.TIMESTAMP)
+            .setParameter("transactionIds", transactionIds)
+            .executeUpdate();
+    }
+
+    /** Unfinished entries not updated since {@code before}, or any unfinished entry of {@code node}. */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public List<String> findUnfinished(Collection<String> finishedStatuses, Date before, String node) {
+        return entityManager.createQuery(
+                "SELECT o.transactionId FROM ImportOperation o WHERE o.status NOT IN :finished " +
+                "AND (o.updatedAt < :before OR o.node = :node) ORDER BY o.updatedAt", String.class)
+            .setParameter("finished", finishedStatuses)
+            .setParameter("before", before, TemporalType.TIMESTAMP)
+            .setParameter("node", node)
+            .getResultList();
+    }
+
+    public int deleteFinished(Collection<String> finishedStatuses, Date before) {
+        return entityManager.createQuery(
+                "DELETE FROM ImportOperation o WHERE o.status IN :finished AND o.updatedAt < :before")
+            .setParameter("finished", finishedStatuses)
+            .setParameter("before", before, TemporalType.TIMESTAMP)
+            .executeUpdate();
+    }
+
+    private boolean updateStatus(String transactionId, String expected, String next, String tempFileKey) {
+        Query query = entityManager.createQuery(
+                "UPDATE ImportOperation o SET o.status = :next, o.updatedAt = :now" +
+                (tempFileKey != null ? ", o.tempFileKey = :tempFileKey" : "") +
+                " WHERE o.transactionId = :transactionId AND o.status = :expected")
+            .setParameter("next", next)
+            .setParameter("now", new Date(), TemporalType.TIMESTAMP)
+            .setParameter("transactionId", transactionId)
+            .setParameter("expected", expected);
+        if (tempFileKey != null) {
+            query.setParameter("tempFileKey", tempFileKey);
+        }
+        return query.executeUpdate() == 1;
+    }
+}
@@ -45,6 +45,8 @@ public class HumanBeingDto {
     @NotNull(message = "Weapon type cannot be null")
     private String weaponType;
 
+    private Long version;
+
     public HumanBeingDto() {}
 
     public HumanBeingDto(Long id, String name, CoordinatesDto coordinates, Date creationDate, 
@@ -161,6 +163,14 @@ public class HumanBeingDto {
         this.weaponType = weaponType;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "HumanBeingDto{" +
@@ -176,6 +186,7 @@ public class HumanBeingDto {
                 ", soundtrackName='" + soundtrackName + '\'' +
                 ", minutesOfWaiting=" + minutesOfWaiting +
                 ", weaponType='" + weaponType + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,78 @@
+package com.humanbeingmanager.dto;
+
+import java.util.List;
+
+public class ImportChunkResultDto {
+
+    public static final String COMMITTED = "COMMITTED";
+    public static final String FAILED = "FAILED";
+    /** Committed by an earlier run of the same import and not written again. */
+    public static final String SKIPPED = "SKIPPED";
+
+    private int index;
+    private int firstRow;
+    private int rowCount;
+    private String status;
+    private String errorMessage;
+    private List<String> errors;
+
+    public ImportChunkResultDto() {}
+
+    public ImportChunkResultDto(int index, int firstRow, int rowCount, String status,
+                                String errorMessage, List<String> errors) {
+        this.index = index;
+        this.firstRow = firstRow;
+        this.rowCount = rowCount;
+        this.status = status;
+        this.errorMessage = errorMessage;
+        this.errors = errors;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public void setFirstRow(int firstRow) {
+        this.firstRow = firstRow;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -12,6 +12,7 @@ public class ImportHistoryDto {
     private Integer failedCount;
     private String errorMessage;
     private String fileKey;
+    private String errorReportId;
     
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
     private Date createdAt;
@@ -102,6 +103,12 @@ public class ImportHistoryDto {
     public void setFileKey(String fileKey) {
         this.fileKey = fileKey;
     }
-}
 
+    public String getErrorReportId() {
+        return errorReportId;
+    }
 
+    public void setErrorReportId(String errorReportId) {
+        this.errorReportId = errorReportId;
+    }
+}
@@ -1,5 +1,6 @@
 package com.humanbeingmanager.dto;
 
+import java.util.Date;
 import java.util.List;
 
 public class ImportResultDto {
@@ -9,6 +10,11 @@ public class ImportResultDto {
     private int successfullyImported;
     private int failed;
     private List<String> errors;
+    private Long importId;
+    private List<ImportChunkResultDto> chunks;
+    private String commitToken;
+    private Date commitTokenExpiresAt;
+    private String errorReportId;
 
     public ImportResultDto() {}
 
@@ -78,5 +84,48 @@ public class ImportResultDto {
     public void setErrors(List<String> errors) {
         this.errors = errors;
     }
-}
 
+    /** Import history id of a chunked-commit import, to resume it with; {@code null} otherwise. */
+    public Long getImportId() {
+        return importId;
+    }
+
+    public void setImportId(Long importId) {
+        this.importId = importId;
+    }
+
+    /** Per-chunk outcomes of a chunked-commit import, in file order; {@code null} otherwise. */
+    public List<ImportChunkResultDto> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<ImportChunkResultDto> chunks) {
+        this.chunks = chunks;
+    }
+
+    /** Token of a passed dry run, to commit the validated rows with; {@code null} otherwise. */
+    public String getCommitToken() {
+        return commitToken;
+    }
+
+    public void setCommitToken(String commitToken) {
+        this.commitToken = commitToken;
+    }
+
+    public Date getCommitTokenExpiresAt() {
+        return commitTokenExpiresAt;
+    }
+
+    public void setCommitTokenExpiresAt(Date commitTokenExpiresAt) {
+        this.commitTokenExpiresAt = commitTokenExpiresAt;
+    }
+
+    /** Full error report in CSV, downloadable from {@code /import/error-reports/{id}}; {@code null} without errors. */
+    public String getErrorReportId() {
+        return errorReportId;
+    }
+
+    public void setErrorReportId(String errorReportId) {
+        this.errorReportId = errorReportId;
+    }
+}
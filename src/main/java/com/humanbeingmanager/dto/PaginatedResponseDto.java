@@ -8,6 +8,7 @@ public class PaginatedResponseDto<T> {
     private int totalPages;
     private int currentPage;
     private int pageSize;
+    private String nextCursor;
 
     public PaginatedResponseDto() {}
 
@@ -19,6 +20,19 @@ public class PaginatedResponseDto<T> {
         this.totalPages = (int) Math.ceil((double) totalElements / pageSize);
     }
 
+    /**
+     * Keyset page: there is no page number, the client passes {@code nextCursor} back to get the
+     * following page; {@code null} means this was the last one. {@code totalElements} may be
+     * {@code null} when the total was not counted for this page.
+     */
+    public PaginatedResponseDto(List<T> content, Long totalElements, int pageSize, String nextCursor) {
+        this.content = content;
+        this.totalElements = totalElements;
+        this.pageSize = pageSize;
+        this.totalPages = totalElements != null ? (int) Math.ceil((double) totalElements / pageSize) : 0;
+        this.nextCursor = nextCursor;
+    }
+
     public List<T> getContent() {
         return content;
     }
@@ -58,4 +72,12 @@ public class PaginatedResponseDto<T> {
     public void setPageSize(int pageSize) {
         this.pageSize = pageSize;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
\ No newline at end of file
@@ -17,6 +17,10 @@ public class Car {
     @Column(name = "cool", nullable = false)
     private boolean cool;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     public Car() {}
 
     public Car(String name, boolean cool) {
@@ -48,6 +52,14 @@ public class Car {
         this.cool = cool;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Car{" +
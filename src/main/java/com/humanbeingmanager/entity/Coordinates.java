@@ -50,7 +50,7 @@ public class Coordinates {
         if (!(o instanceof Coordinates)) return false;
         Coordinates that = (Coordinates) o;
         return Double.compare(that.y, y) == 0 &&
-                x != null ? x.equals(that.x) : that.x == null;
+                (x != null ? x.equals(that.x) : that.x == null);
     }
 
     @Override
@@ -8,6 +8,7 @@ import java.util.Date;
 @Entity
 @Table(name = "human_beings")
 @Cacheable(true)
+@EntityListeners(com.humanbeingmanager.service.CoordinateOccupancyListener.class)
 @NamedQueries({
     @NamedQuery(name = "HumanBeing.findAll", query = "SELECT h FROM HumanBeing h"),
     @NamedQuery(name = "HumanBeing.findById", query = "SELECT h FROM HumanBeing h WHERE h.id = :id"),
@@ -68,6 +69,10 @@ public class HumanBeing {
     @NotNull(message = "Weapon type cannot be null")
     private WeaponType weaponType;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     public HumanBeing() {
         this.creationDate = new Date();
     }
@@ -190,6 +195,14 @@ public class HumanBeing {
         this.weaponType = weaponType;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "HumanBeing{" +
@@ -0,0 +1,98 @@
+package com.humanbeingmanager.entity;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * A committed chunk of a chunked-commit import. Written in the chunk's own transaction,
+ * so a row here means exactly that the chunk's HumanBeings are in the database.
+ */
+@Entity
+@Table(name = "import_chunks",
+       uniqueConstraints = @UniqueConstraint(name = "uk_import_chunks_import_chunk", columnNames = {"import_id", "chunk_index"}))
+@Cacheable(false)
+public class ImportChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "import_id", nullable = false)
+    private Long importId;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "first_row", nullable = false)
+    private Integer firstRow;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    @Column(name = "committed_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date committedAt;
+
+    public ImportChunk() {
+    }
+
+    public ImportChunk(Long importId, Integer chunkIndex, Integer firstRow, Integer rowCount) {
+        this.importId = importId;
+        this.chunkIndex = chunkIndex;
+        this.firstRow = firstRow;
+        this.rowCount = rowCount;
+    }
+
+    @PrePersist
+    void onPersist() {
+        committedAt = new Date();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getImportId() {
+        return importId;
+    }
+
+    public void setImportId(Long importId) {
+        this.importId = importId;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Integer getFirstRow() {
+        return firstRow;
+    }
+
+    public void setFirstRow(Integer firstRow) {
+        this.firstRow = firstRow;
+    }
+
+    public Integer getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(Integer rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public Date getCommittedAt() {
+        return committedAt;
+    }
+
+    public void setCommittedAt(Date committedAt) {
+        this.committedAt = committedAt;
+    }
+}
@@ -36,6 +36,18 @@ public class ImportHistory {
     
     @Column(name = "file_key")
     private String fileKey;
+
+    /** Rows per committed chunk; {@code null} for all-or-nothing imports. */
+    @Column(name = "chunk_size")
+    private Integer chunkSize;
+
+    /** SHA-256 of the uploaded file, so a resume can only continue the same file. */
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
+
+    /** Id of the full error report in MinIO, when the import had errors. */
+    @Column(name = "error_report_id", length = 64)
+    private String errorReportId;
     
     public ImportHistory() {
         this.createdAt = new Date();
@@ -129,6 +141,28 @@ public class ImportHistory {
     public void setFileKey(String fileKey) {
         this.fileKey = fileKey;
     }
-}
 
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
 
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
+    public String getErrorReportId() {
+        return errorReportId;
+    }
+
+    public void setErrorReportId(String errorReportId) {
+        this.errorReportId = errorReportId;
+    }
+}
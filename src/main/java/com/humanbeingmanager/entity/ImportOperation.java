@@ -3,8 +3,14 @@ package com.humanbeingmanager.entity;
 import jakarta.persistence.*;
 import java.util.Date;
 
+/**
+ * Log entry of one file import's two-phase commit: its phase, the node coordinating it and the
+ * temporary MinIO object it prepared. Shared by all nodes, so any of them can finish or recover it.
+ */
 @Entity
-@Table(name = "import_operation")
+@Table(name = "import_operation",
+       indexes = @Index(name = "idx_import_operation_status_updated", columnList = "status, updated_at"))
+@Cacheable(false)
 public class ImportOperation {
     
     @Id
@@ -17,12 +23,24 @@ public class ImportOperation {
     @Column(name = "status", nullable = false)
     private String status;
     
+    @Column(name = "node")
+    private String node;
+    
+    @Column(name = "temp_file_key", length = 512)
+    private String tempFileKey;
+    
     @Column(name = "created_at", nullable = false)
     @Temporal(TemporalType.TIMESTAMP)
     private Date createdAt;
     
+    /** Last phase change or heartbeat of the coordinating node. */
+    @Column(name = "updated_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+    
     public ImportOperation() {
         this.createdAt = new Date();
+        this.updatedAt = createdAt;
     }
     
     public ImportOperation(String transactionId, String status) {
@@ -31,6 +49,11 @@ public class ImportOperation {
         this.status = status;
     }
     
+    public ImportOperation(String transactionId, String status, String node) {
+        this(transactionId, status);
+        this.node = node;
+    }
+    
     public Long getId() {
         return id;
     }
@@ -62,5 +85,29 @@ public class ImportOperation {
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
     }
+    
+    public String getNode() {
+        return node;
+    }
+    
+    public void setNode(String node) {
+        this.node = node;
+    }
+    
+    public String getTempFileKey() {
+        return tempFileKey;
+    }
+    
+    public void setTempFileKey(String tempFileKey) {
+        this.tempFileKey = tempFileKey;
+    }
+    
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
 
@@ -0,0 +1,16 @@
+package com.humanbeingmanager.exception;
+
+/** An import was not admitted because too many are running or waiting; the client should retry later. */
+public class ImportRejectedException extends Exception {
+
+    private final long retryAfterSeconds;
+
+    public ImportRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
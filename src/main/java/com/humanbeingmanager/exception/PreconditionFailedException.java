@@ -0,0 +1,11 @@
+package com.humanbeingmanager.exception;
+
+public class PreconditionFailedException extends Exception {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,188 @@
+package com.humanbeingmanager.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads RFC 4180 CSV (UTF-8, comma-separated, double-quoted fields) record by record.
+ * The header row names the columns by their JSON property path, e.g. {@code coordinates.x} or
+ * {@code car.name}; an empty field is a missing value. Each record is bound through the same
+ * Jackson mapping as the JSON formats, so types and dates are read the same way.
+ */
+public class CsvRowReader implements ImportRowReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Set<String> COLUMNS = new HashSet<>(Arrays.asList(
+        "id", "name", "coordinates.x", "coordinates.y", "creationDate", "realHero", "hasToothpick",
+        "car.id", "car.name", "car.cool", "mood", "impactSpeed", "soundtrackName", "minutesOfWaiting", "weaponType"));
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private String[][] header;
+    private List<String> pending;
+    private boolean finished;
+    private int line = 1;
+    private int row;
+
+    public CsvRowReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null) {
+                    finished = true;
+                    return false;
+                }
+                header = parseHeader(names);
+            }
+            List<String> record;
+            do {
+                record = readRecord();
+            } while (record != null && record.size() == 1 && record.get(0).isEmpty());
+            if (record == null) {
+                finished = true;
+                return false;
+            }
+            pending = record;
+            return true;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid CSV format: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public HumanBeingDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<String> record = pending;
+        pending = null;
+        row++;
+        if (record.size() != header.length) {
+            throw new IllegalArgumentException("Invalid CSV format in row " + row + ": expected " + header.length +
+                                               " fields, found " + record.size());
+        }
+        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        for (int i = 0; i < header.length; i++) {
+            String value = record.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            String[] path = header[i];
+            ObjectNode parent = node;
+            for (int p = 0; p < path.length - 1; p++) {
+                parent = parent.has(path[p]) ? (ObjectNode) parent.get(path[p]) : parent.putObject(path[p]);
+            }
+            parent.put(path[path.length - 1], value);
+        }
+        try {
+            return OBJECT_MAPPER.treeToValue(node, HumanBeingDto.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid CSV format in row " + row + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String[][] parseHeader(List<String> names) {
+        // a UTF-8 byte order mark, as spreadsheet exports often write
+        if (!names.isEmpty() && names.get(0).startsWith("\uFEFF")) {
+            names.set(0, names.get(0).substring(1));
+        }
+        String[][] paths = new String[names.size()][];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Invalid CSV format: unknown column '" + name + "'");
+            }
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException("Invalid CSV format: duplicate column '" + name + "'");
+            }
+            paths[i] = name.split("\\.");
+        }
+        return paths;
+    }
+
+    /** @return the fields of the next record, or {@code null} at the end of the input */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        int startLine = line;
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Invalid CSV format at line " + startLine + ": unterminated quote");
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == '\n' || c == -1) {
+                if (c == '\n') {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '\r') {
+                // CRLF line ends; a bare CR is dropped
+            } else if (c == '"' && field.length() == 0 && !afterQuote) {
+                quoted = true;
+            } else if (afterQuote) {
+                throw new IllegalArgumentException("Invalid CSV format at line " + line + ": text after closing quote");
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
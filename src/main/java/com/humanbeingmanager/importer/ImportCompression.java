@@ -0,0 +1,113 @@
+package com.humanbeingmanager.importer;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compression of an uploaded import file. The compressed bytes are what gets spooled, hashed and
+ * archived; {@link #decode} inflates them on the fly for the row reader only.
+ */
+public enum ImportCompression {
+
+    NONE(null, "", null),
+    GZIP("application/gzip", ".gz", new byte[]{(byte) 0x1f, (byte) 0x8b}),
+    ZSTD("application/zstd", ".zst", new byte[]{(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd});
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String mediaType;
+    private final String extension;
+    private final byte[] magic;
+
+    ImportCompression(String mediaType, String extension, byte[] magic) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+        this.magic = magic;
+    }
+
+    /** @return media type of the compressed file, or {@code null} for uncompressed files */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /** @return suffix added after the format's extension, e.g. {@code .gz}; empty for uncompressed files */
+    public String getExtension() {
+        return extension;
+    }
+
+    public InputStream decode(InputStream input) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPInputStream(input, BUFFER_SIZE);
+            case ZSTD:
+                return new ZstdInputStream(input);
+            default:
+                return input;
+        }
+    }
+
+    /**
+     * A {@code Content-Encoding} of gzip or zstd wins; otherwise the first bytes of the file decide.
+     * Identity and unknown encodings fall through to the magic bytes as well.
+     */
+    public static ImportCompression detect(String contentEncoding, Path file) throws IOException {
+        ImportCompression byEncoding = fromContentEncoding(contentEncoding);
+        if (byEncoding != null) {
+            return byEncoding;
+        }
+        byte[] head = new byte[4];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        for (ImportCompression compression : values()) {
+            if (compression.magic != null && read >= compression.magic.length &&
+                Arrays.equals(head, 0, compression.magic.length, compression.magic, 0, compression.magic.length)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /** @return the compression named by a {@code Content-Encoding} value, or {@code null} */
+    public static ImportCompression fromContentEncoding(String contentEncoding) {
+        if (contentEncoding == null) {
+            return null;
+        }
+        switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return GZIP;
+            case "zstd":
+                return ZSTD;
+            default:
+                return null;
+        }
+    }
+
+    /** @return the compression of a file name or storage key by its suffix */
+    public static ImportCompression fromFileName(String fileName) {
+        if (fileName != null) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                return GZIP;
+            }
+            if (name.endsWith(".zst")) {
+                return ZSTD;
+            }
+        }
+        return NONE;
+    }
+
+    /** @return the file name without this compression's suffix, e.g. {@code rows.csv} for {@code rows.csv.gz} */
+    public static String stripExtension(String fileName) {
+        ImportCompression compression = fromFileName(fileName);
+        return fileName == null ? null : fileName.substring(0, fileName.length() - compression.extension.length());
+    }
+}
@@ -0,0 +1,93 @@
+package com.humanbeingmanager.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/** File formats an import accepts, each with the reader that streams its rows. */
+public enum ImportFormat {
+
+    JSON("application/json", ".json"),
+    NDJSON("application/x-ndjson", ".ndjson"),
+    CSV("text/csv", ".csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    ImportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public ImportRowReader open(InputStream input) throws IOException {
+        switch (this) {
+            case NDJSON:
+                return new NdjsonRowReader(input);
+            case CSV:
+                return new CsvRowReader(input);
+            default:
+                return new JsonArrayRowReader(input);
+        }
+    }
+
+    /**
+     * A specific content type wins; generic ones (octet-stream, text/plain) fall back to the file
+     * name extension, and anything unrecognised is read as a JSON array, as before.
+     */
+    public static ImportFormat detect(String contentType, String fileName) {
+        ImportFormat byType = fromMediaType(contentType);
+        if (byType != null) {
+            return byType;
+        }
+        ImportFormat byName = fromFileName(fileName);
+        return byName != null ? byName : JSON;
+    }
+
+    /** @return the format of a media type such as {@code text/csv; charset=UTF-8}, or {@code null} */
+    public static ImportFormat fromMediaType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "application/json":
+                return JSON;
+            case "application/x-ndjson":
+            case "application/ndjson":
+            case "application/jsonl":
+            case "application/x-jsonlines":
+                return NDJSON;
+            case "text/csv":
+            case "application/csv":
+                return CSV;
+            default:
+                return null;
+        }
+    }
+
+    /** @return the format of a file name or storage key by its extension, or {@code null}; {@code .gz} etc. is skipped */
+    public static ImportFormat fromFileName(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        String name = ImportCompression.stripExtension(fileName).toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".json")) {
+            return JSON;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.humanbeingmanager.importer;
+
+import com.humanbeingmanager.dto.HumanBeingDto;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Source of import rows, read one at a time so an import never needs the whole file in memory.
+ * Malformed input surfaces from {@link #hasNext()} or {@link #next()} as an {@link IllegalArgumentException}.
+ */
+public interface ImportRowReader extends Iterator<HumanBeingDto>, Closeable {
+
+    /** Whether the rows already passed the row rules, as rows staged by a dry run have; imports skip them then. */
+    default boolean isPrevalidated() {
+        return false;
+    }
+
+    /** Rows already bound in memory, e.g. a JSON request body. */
+    static ImportRowReader of(List<HumanBeingDto> rows) {
+        Iterator<HumanBeingDto> iterator = rows.iterator();
+        return new ImportRowReader() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public HumanBeingDto next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /** The same rows, marked as already validated. */
+    static ImportRowReader prevalidated(ImportRowReader rows) {
+        return new ImportRowReader() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public HumanBeingDto next() {
+                return rows.next();
+            }
+
+            @Override
+            public boolean isPrevalidated() {
+                return true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                rows.close();
+            }
+        };
+    }
+}
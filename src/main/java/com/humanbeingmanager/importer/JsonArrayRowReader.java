@@ -0,0 +1,92 @@
+package com.humanbeingmanager.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a top-level JSON array of HumanBeings element by element with Jackson's streaming parser.
+ * Only the current element is ever bound, so memory stays flat however long the array is.
+ */
+public class JsonArrayRowReader implements ImportRowReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final JsonParser parser;
+    private boolean started;
+    private boolean finished;
+    private boolean pending;
+    private int row;
+
+    public JsonArrayRowReader(InputStream input) throws IOException {
+        // encoding is detected from the first bytes, as ObjectMapper.readValue(byte[]) does
+        this.parser = OBJECT_MAPPER.getFactory().createParser(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            if (!started) {
+                started = true;
+                JsonToken first = parser.nextToken();
+                if (first == null) {
+                    finished = true;
+                    return false;
+                }
+                if (first != JsonToken.START_ARRAY) {
+                    throw invalid("expected an array of HumanBeings");
+                }
+            }
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                finished = true;
+                // the whole input is one array, as a whole-document read would insist
+                if (parser.nextToken() != null) {
+                    throw invalid("unexpected content after the array");
+                }
+                return false;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw invalid("element " + (row + 1) + " is not an object");
+            }
+            pending = true;
+            return true;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON format: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public HumanBeingDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        pending = false;
+        row++;
+        try {
+            return OBJECT_MAPPER.readValue(parser, HumanBeingDto.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON format in element " + row + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private IllegalArgumentException invalid(String problem) {
+        return new IllegalArgumentException("Invalid JSON format at line " + parser.getCurrentLocation().getLineNr() +
+                                            ": " + problem);
+    }
+}
@@ -0,0 +1,71 @@
+package com.humanbeingmanager.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads newline-delimited JSON: one HumanBeing object per line, blank lines ignored.
+ * Bound with the same mapping as {@link JsonArrayRowReader}, one object at a time.
+ */
+public class NdjsonRowReader implements ImportRowReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final JsonParser parser;
+    private boolean finished;
+    private boolean pending;
+    private int row;
+
+    public NdjsonRowReader(InputStream input) throws IOException {
+        this.parser = OBJECT_MAPPER.getFactory().createParser(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                finished = true;
+                return false;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Invalid NDJSON format at line " +
+                                                   parser.getCurrentLocation().getLineNr() + ": expected an object");
+            }
+            pending = true;
+            return true;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid NDJSON format: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public HumanBeingDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        pending = false;
+        row++;
+        try {
+            return OBJECT_MAPPER.readValue(parser, HumanBeingDto.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid NDJSON format in row " + row + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,42 @@
+package com.humanbeingmanager.importer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes bound rows as newline-delimited JSON, the counterpart of {@link NdjsonRowReader}.
+ * Used to spool the rows of a dry run so that the commit reads them back without the original format.
+ */
+public class NdjsonRowWriter implements Closeable {
+
+    private static final ObjectMapper OBJECT_MAPPER =
+        new ObjectMapper(new JsonFactoryBuilder().rootValueSeparator("\n").build())
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JsonGenerator generator;
+
+    public NdjsonRowWriter(Path file) throws IOException {
+        this.generator = OBJECT_MAPPER.getFactory()
+            .createGenerator(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE), JsonEncoding.UTF8);
+    }
+
+    public void write(HumanBeingDto row) throws IOException {
+        OBJECT_MAPPER.writeValue(generator, row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
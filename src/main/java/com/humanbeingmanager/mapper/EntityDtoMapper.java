@@ -25,6 +25,7 @@ public class EntityDtoMapper {
         dto.setSoundtrackName(entity.getSoundtrackName());
         dto.setMinutesOfWaiting(entity.getMinutesOfWaiting());
         dto.setWeaponType(entity.getWeaponType() != null ? entity.getWeaponType().name() : null);
+        dto.setVersion(entity.getVersion());
 
         return dto;
     }
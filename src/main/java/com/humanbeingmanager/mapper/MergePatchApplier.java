@@ -0,0 +1,231 @@
+package com.humanbeingmanager.mapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.humanbeingmanager.entity.Car;
+import com.humanbeingmanager.entity.Coordinates;
+import com.humanbeingmanager.entity.HumanBeing;
+import com.humanbeingmanager.entity.Mood;
+import com.humanbeingmanager.entity.WeaponType;
+import com.humanbeingmanager.exception.ValidationException;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies an RFC 7396 JSON Merge Patch ({@code application/merge-patch+json}) to a HumanBeing.
+ * Only members present in the patch are touched; {@code null} clears a value.
+ */
+@ApplicationScoped
+public class MergePatchApplier {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    /** Members that carry no state to patch: the id comes from the path, the version from If-Match. */
+    private static final Set<String> IGNORED_FIELDS = Set.of("id", "version");
+
+    /**
+     * @param carLookup resolves an existing car when the patch points the car at another id
+     * @return names of the HumanBeing properties whose value actually changed
+     * @throws ValidationException if the patch is not an object or a member has the wrong type
+     */
+    public Set<String> apply(JsonNode patch, HumanBeing target, Function<Long, Optional<Car>> carLookup)
+            throws ValidationException {
+        return apply(patch, target, carLookup, false);
+    }
+
+    /**
+     * @param sharedCars when cars are shared between rows, patched car members go to a new unsaved
+     *                   car instead of editing the referenced row
+     */
+    public Set<String> apply(JsonNode patch, HumanBeing target, Function<Long, Optional<Car>> carLookup,
+                             boolean sharedCars) throws ValidationException {
+        if (patch == null || !patch.isObject()) {
+            throw new ValidationException("Merge patch must be a JSON object");
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+            if (IGNORED_FIELDS.contains(name)) {
+                continue;
+            }
+            boolean fieldChanged;
+            switch (name) {
+                case "name":
+                    fieldChanged = setIfChanged(target.getName(), text(name, value), target::setName);
+                    break;
+                case "coordinates":
+                    fieldChanged = applyCoordinates(value, target);
+                    break;
+                case "realHero":
+                    fieldChanged = setIfChanged(target.isRealHero(), requiredBoolean(name, value), target::setRealHero);
+                    break;
+                case "hasToothpick":
+                    fieldChanged = setIfChanged(target.getHasToothpick(), optionalBoolean(name, value), target::setHasToothpick);
+                    break;
+                case "car":
+                    fieldChanged = applyCar(value, target, carLookup, sharedCars);
+                    break;
+                case "mood":
+                    fieldChanged = setIfChanged(target.getMood(), enumValue(Mood.class, name, value), target::setMood);
+                    break;
+                case "impactSpeed":
+                    fieldChanged = setIfChanged(target.getImpactSpeed(), (float) requiredNumber(name, value), target::setImpactSpeed);
+                    break;
+                case "soundtrackName":
+                    fieldChanged = setIfChanged(target.getSoundtrackName(), text(name, value), target::setSoundtrackName);
+                    break;
+                case "minutesOfWaiting":
+                    fieldChanged = setIfChanged(target.getMinutesOfWaiting(), optionalLong(name, value), target::setMinutesOfWaiting);
+                    break;
+                case "weaponType":
+                    fieldChanged = setIfChanged(target.getWeaponType(), enumValue(WeaponType.class, name, value), target::setWeaponType);
+                    break;
+                default:
+                    throw new ValidationException("Field '" + name + "' cannot be patched");
+            }
+            if (fieldChanged) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    private boolean applyCoordinates(JsonNode value, HumanBeing target) throws ValidationException {
+        if (!value.isObject()) {
+            throw new ValidationException("coordinates must be an object");
+        }
+        Coordinates current = target.getCoordinates();
+        Coordinates patched = current != null
+            ? new Coordinates(current.getX(), current.getY())
+            : new Coordinates();
+        if (value.has("x")) {
+            patched.setX(optionalInteger("coordinates.x", value.get("x")));
+        }
+        if (value.has("y")) {
+            patched.setY(requiredNumber("coordinates.y", value.get("y")));
+        }
+        return setIfChanged(current, patched, target::setCoordinates);
+    }
+
+    /**
+     * Merges into the current car. A non-null {@code id} switches to that existing car first,
+     * {@code "id": null} starts a new, not yet persisted car.
+     */
+    private boolean applyCar(JsonNode value, HumanBeing target, Function<Long, Optional<Car>> carLookup,
+                             boolean sharedCars) throws ValidationException {
+        if (!value.isObject()) {
+            throw new ValidationException("car must be an object");
+        }
+        Car car = target.getCar();
+        boolean changed = false;
+        if (value.has("id")) {
+            JsonNode id = value.get("id");
+            if (id.isNull()) {
+                car = new Car();
+                changed = true;
+            } else if (!id.canConvertToLong()) {
+                throw new ValidationException("car.id must be a number");
+            } else if (car == null || car.getId() == null || car.getId() != id.asLong()) {
+                car = carLookup.apply(id.asLong()).orElseThrow(
+                    () -> new ValidationException("Car with ID " + id.asLong() + " not found"));
+                changed = true;
+            }
+        }
+        if (car == null) {
+            throw new ValidationException("car cannot be null");
+        }
+        String name = value.has("name") ? text("car.name", value.get("name")) : car.getName();
+        boolean cool = value.has("cool") ? requiredBoolean("car.cool", value.get("cool")) : car.isCool();
+        if (!Objects.equals(name, car.getName()) || cool != car.isCool()) {
+            if (sharedCars && car.getId() != null) {
+                car = new Car(name, cool);
+            } else {
+                car.setName(name);
+                car.setCool(cool);
+            }
+            changed = true;
+        }
+        if (car != target.getCar()) {
+            target.setCar(car);
+        }
+        return changed;
+    }
+
+    private static <T> boolean setIfChanged(T current, T patched, Consumer<T> setter) {
+        if (Objects.equals(current, patched)) {
+            return false;
+        }
+        setter.accept(patched);
+        return true;
+    }
+
+    private static String text(String name, JsonNode value) throws ValidationException {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new ValidationException(name + " must be a string");
+        }
+        return value.asText();
+    }
+
+    private static boolean requiredBoolean(String name, JsonNode value) throws ValidationException {
+        if (!value.isBoolean()) {
+            throw new ValidationException(name + " must be true or false");
+        }
+        return value.asBoolean();
+    }
+
+    private static Boolean optionalBoolean(String name, JsonNode value) throws ValidationException {
+        return value.isNull() ? null : requiredBoolean(name, value);
+    }
+
+    private static double requiredNumber(String name, JsonNode value) throws ValidationException {
+        if (!value.isNumber()) {
+            throw new ValidationException(name + " must be a number");
+        }
+        return value.asDouble();
+    }
+
+    private static Integer optionalInteger(String name, JsonNode value) throws ValidationException {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToInt()) {
+            throw new ValidationException(name + " must be an integer");
+        }
+        return value.asInt();
+    }
+
+    private static Long optionalLong(String name, JsonNode value) throws ValidationException {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+            throw new ValidationException(name + " must be an integer");
+        }
+        return value.asLong();
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name, JsonNode value) throws ValidationException {
+        String text = text(name, value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, text);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid " + name + " value: " + text);
+        }
+    }
+}
@@ -15,9 +15,10 @@ public class CorsFilter implements ContainerResponseFilter {
 
         responseContext.getHeaders().add("Access-Control-Allow-Origin", "*");
         responseContext.getHeaders().add("Access-Control-Allow-Headers", 
-                                        "origin, content-type, accept, authorization");
+                                        "origin, content-type, accept, authorization, if-match, idempotency-key");
+        responseContext.getHeaders().add("Access-Control-Expose-Headers", "ETag, Idempotent-Replayed");
         responseContext.getHeaders().add("Access-Control-Allow-Methods", 
-                                        "GET, POST, PUT, DELETE, OPTIONS, HEAD");
+                                        "GET, POST, PUT, PATCH, DELETE, OPTIONS, HEAD");
         responseContext.getHeaders().add("Access-Control-Max-Age", "1209600");
     }
 }
\ No newline at end of file
@@ -0,0 +1,485 @@
+package com.humanbeingmanager.rest;
+
+import com.humanbeingmanager.dao.ImportChunkDao;
+import com.humanbeingmanager.dao.ImportHistoryDao;
+import com.humanbeingmanager.dto.ApiResponseDto;
+import com.humanbeingmanager.dto.ImportResultDto;
+import com.humanbeingmanager.entity.ImportHistory;
+import com.humanbeingmanager.importer.ImportCompression;
+import com.humanbeingmanager.importer.ImportFormat;
+import com.humanbeingmanager.importer.ImportRowReader;
+import com.humanbeingmanager.importer.MappedFileInputStream;
+import com.humanbeingmanager.importer.NdjsonRowReader;
+import com.humanbeingmanager.importer.NdjsonRowWriter;
+import com.humanbeingmanager.service.ChunkedImportService;
+import com.humanbeingmanager.service.DistributedTransactionManager;
+import com.humanbeingmanager.service.ImportProgress;
+import com.humanbeingmanager.service.ImportService;
+import com.humanbeingmanager.service.StagedImport;
+import com.humanbeingmanager.service.StagedImportService;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.Response;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs an import of a spooled upload through the MinIO/database two-phase commit and records it in
+ * the import history. Not tied to a request, so the same code serves synchronous and background imports.
+ */
+@ApplicationScoped
+public class FileImportHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(FileImportHandler.class.getName());
+
+    private static final String MAX_CHUNK_SIZE_PROP = "import.chunkedCommit.maxChunkSize";
+
+    @EJB
+    private ImportHistoryDao importHistoryDao;
+
+    @EJB
+    private ImportChunkDao importChunkDao;
+
+    @EJB
+    private ChunkedImportService chunkedImportService;
+
+    @EJB
+    private DistributedTransactionManager transactionManager;
+
+    @EJB
+    private ImportService importService;
+
+    @EJB
+    private StagedImportService stagedImports;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    /**
+     * @param compression    how the spooled file is compressed; it is archived as is and inflated only for reading
+     * @param chunkSize      opt-in chunked-commit mode: rows per separately committed chunk
+     * @param resumeImportId continue that chunked import, skipping the chunks it already committed
+     * @param bulk           load through COPY and a staging table instead of JPA; all-or-nothing like the default
+     * @param progress       updated as the import goes; also carries the id of the history row it writes
+     */
+    public Response importFile(Path file, ImportFormat format, ImportCompression compression, String fileHash,
+                               Integer chunkSize, Long resumeImportId, boolean bulk, ImportProgress progress) {
+        return importFile(file, format, compression, fileHash, chunkSize, resumeImportId, bulk, null, progress);
+    }
+
+    /**
+     * Validates the file like an import but writes nothing. When it passes, the upload and its rows are
+     * staged on disk (the file is moved out of the caller's hands) and the result carries the commit token.
+     */
+    public Response dryRun(Path file, ImportFormat format, ImportCompression compression, String fileHash,
+                           ImportProgress progress) {
+        Path rowsFile = null;
+        try {
+            if (Files.size(file) == 0) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("No HumanBeings data in file"))
+                              .build();
+            }
+            rowsFile = Files.createTempFile("import-staged-", ".ndjson");
+            ImportResultDto result;
+            progress.setPhase(ImportProgress.Phase.IMPORTING);
+            try (ImportRowReader rows = openRows(file, format, compression, progress);
+                 NdjsonRowWriter accepted = new NdjsonRowWriter(rowsFile)) {
+                result = importService.validateImport(rows, accepted);
+            }
+            if (!result.isSuccess()) {
+                deleteQuietly(rowsFile);
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(new ApiResponseDto<>(false, "Dry run failed: " + result.getErrorMessage(), result))
+                              .build();
+            }
+
+            Path stagedFile = Files.createTempFile("import-staged-", ".upload");
+            Files.move(file, stagedFile, StandardCopyOption.REPLACE_EXISTING);
+            StagedImport staged = stagedImports.stage(stagedFile, rowsFile, format, compression, fileHash,
+                                                      result.getTotalProcessed());
+            result.setCommitToken(staged.getToken());
+            result.setCommitTokenExpiresAt(staged.getExpiresAt());
+            return Response.ok(ApiResponseDto.success("Dry run passed - nothing imported yet", result)).build();
+
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Dry run of import file failed", e);
+            if (rowsFile != null) {
+                deleteQuietly(rowsFile);
+            }
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(ApiResponseDto.error("Dry run failed: " + e.getMessage()))
+                          .build();
+        }
+    }
+
+    /**
+     * Imports the rows staged by a dry run. They skip the row rules; coordinates are still checked against
+     * the database under the import locks, as it may have changed since. A failed commit leaves the token
+     * usable until it expires.
+     */
+    public Response commitStaged(String token, boolean bulk, ImportProgress progress) {
+        Optional<StagedImport> claimed = stagedImports.claim(token);
+        if (!claimed.isPresent()) {
+            return Response.status(Response.Status.NOT_FOUND)
+                          .entity(ApiResponseDto.error("Unknown or expired commit token"))
+                          .build();
+        }
+        StagedImport staged = claimed.get();
+        Response response = importFile(staged.getFile(), staged.getFormat(), staged.getCompression(),
+                                       staged.getFileHash(), null, null, bulk, staged, progress);
+        if (response.getStatus() < 300) {
+            stagedImports.discard(staged);
+        } else {
+            stagedImports.release(staged);
+        }
+        return response;
+    }
+
+    private Response importFile(Path file, ImportFormat format, ImportCompression compression, String fileHash,
+                                Integer chunkSize, Long resumeImportId, boolean bulk, StagedImport staged,
+                                ImportProgress progress) {
+        String transactionId = null;
+        String fileKey = null;
+        Future<?> upload = null;
+
+        try {
+            long fileSize = Files.size(file);
+            if (fileSize == 0) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("No HumanBeings data in file"))
+                              .build();
+            }
+
+            boolean chunked = chunkSize != null || resumeImportId != null;
+            if (chunked && bulk) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("bulk cannot be combined with chunkSize or resumeImportId"))
+                              .build();
+            }
+            ImportHistory chunkedHistory = null;
+            Set<Integer> committedChunks = Collections.emptySet();
+            if (resumeImportId != null) {
+                Optional<ImportHistory> earlier = importHistoryDao.findById(resumeImportId);
+                if (!earlier.isPresent()) {
+                    return Response.status(Response.Status.NOT_FOUND)
+                                  .entity(ApiResponseDto.error("Import history not found: " + resumeImportId))
+                                  .build();
+                }
+                chunkedHistory = earlier.get();
+                progress.setImportHistoryId(chunkedHistory.getId());
+                String problem = resumeProblem(chunkedHistory, fileHash, chunkSize);
+                if (problem != null) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                                  .entity(ApiResponseDto.validationError(problem))
+                                  .build();
+                }
+                chunkSize = chunkedHistory.getChunkSize();
+                committedChunks = importChunkDao.findCommittedIndexes(resumeImportId);
+            } else if (chunked && chunkSize < 1) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("chunkSize must be positive"))
+                              .build();
+            } else if (chunked && chunkSize > Integer.parseInt(System.getProperty(MAX_CHUNK_SIZE_PROP, "500"))) {
+                // every row of every running chunk holds advisory locks until its chunk commits
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("chunkSize must not exceed " +
+                                      System.getProperty(MAX_CHUNK_SIZE_PROP, "500")))
+                              .build();
+            }
+            
+            // Phase 1: Prepare MinIO (upload with temp key), in the background: it reads the spooled
+            // file while the rows are parsed and validated, and the import waits for it before committing
+            progress.setPhase(ImportProgress.Phase.PREPARING);
+            transactionId = transactionManager.begin();
+            upload = startUpload(transactionId, file, format, compression);
+            LOGGER.info("Phase 1 (Prepare) - MinIO: upload started, Transaction ID: " + transactionId);
+            
+            // Phase 1: Prepare Database (check readiness)
+            LOGGER.info("Phase 1 (Prepare) - Database: Checking readiness for transaction: " + transactionId);
+            boolean dbPrepared = false;
+            try {
+                dbPrepared = transactionManager.prepareDatabase(transactionId);
+                if (!dbPrepared) {
+                    LOGGER.severe("Phase 1 (Prepare) - Database: NOT READY for transaction: " + transactionId);
+                    upload.cancel(true);
+                    transactionManager.handleDatabaseFailure(transactionId);
+                    return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                                  .entity(ApiResponseDto.error("Database is not available"))
+                                  .build();
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Phase 1 (Prepare) - Database readiness check failed", e);
+                upload.cancel(true);
+                transactionManager.handleDatabaseFailure(transactionId);
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                              .entity(ApiResponseDto.error("Database readiness check failed: " + e.getMessage()))
+                              .build();
+            }
+            
+            if (chunked) {
+                if (chunkedHistory == null) {
+                    // recorded before the first chunk commits, so every committed chunk has a history to resume from
+                    chunkedHistory = new ImportHistory("IN_PROGRESS", System.getProperty("user.name", "Unknown"),
+                                                       0, 0, 0, null);
+                    chunkedHistory.setChunkSize(chunkSize);
+                    chunkedHistory.setFileHash(fileHash);
+                    importHistoryDao.create(chunkedHistory);
+                    progress.setImportHistoryId(chunkedHistory.getId());
+                }
+                return importFileInChunks(file, format, compression, transactionId, upload, chunkedHistory, chunkSize,
+                                          committedChunks, progress);
+            }
+
+            LOGGER.info("Phase 1 (Prepare) - Database: Executing import for transaction: " + transactionId);
+            ImportResultDto result;
+            progress.setPhase(ImportProgress.Phase.IMPORTING);
+            // rows are parsed while they are imported; a malformed file fails the import like a bad row
+            try (ImportRowReader rows = staged != null ? openStagedRows(staged, progress)
+                                                       : openRows(file, format, compression, progress)) {
+                LOGGER.info("Calling transactionManager.executeImportInTransaction");
+                result = bulk ? transactionManager.executeBulkImportInTransaction(transactionId, rows, upload)
+                              : transactionManager.executeImportInTransaction(transactionId, rows, upload);
+                LOGGER.info("Import completed. Success: " + result.isSuccess());
+                
+                if (!result.isSuccess()) {
+                    LOGGER.warning("Database import failed, rolling back transaction: " + transactionId);
+                    boolean storageFailed = uploadFailed(upload);
+                    upload.cancel(true);
+                    transactionManager.handleDatabaseFailure(transactionId);
+                    if (storageFailed) {
+                        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                                      .entity(ApiResponseDto.error(result.getErrorMessage()))
+                                      .build();
+                    }
+                    // the result carries the first errors and the link to the full report
+                    return Response.status(Response.Status.BAD_REQUEST)
+                                  .entity(new ApiResponseDto<>(false, "Import failed: " + result.getErrorMessage(), result))
+                                  .build();
+                }
+                
+                LOGGER.info("Phase 1 (Prepare) - Database: Import completed successfully, transaction prepared (NOT committed), ready for Phase 2");
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Phase 1 (Prepare) - Database import failed", e);
+                upload.cancel(true);
+                transactionManager.handleDatabaseFailure(transactionId);
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.error("Import failed: " + e.getMessage()))
+                              .build();
+            }
+            
+            // Phase 2: Commit (MinIO and database)
+            progress.setPhase(ImportProgress.Phase.COMMITTING);
+            try {
+                fileKey = transactionManager.commit(transactionId);
+                LOGGER.info("Phase 2 (Commit) - Transaction committed: " + transactionId + ", File key: " + fileKey);
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Phase 2 (Commit) - Failed", e);
+                // Transaction manager will handle rollback
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                              .entity(ApiResponseDto.error("Failed to commit transaction: " + e.getMessage()))
+                              .build();
+            }
+            
+            // Save import history
+            String username = System.getProperty("user.name", "Unknown");
+            String status = result.isSuccess() ? "SUCCESS" : "FAILED";
+            ImportHistory history = new ImportHistory(
+                status,
+                username,
+                result.getSuccessfullyImported(),
+                result.getTotalProcessed(),
+                result.getFailed(),
+                result.getErrorMessage(),
+                fileKey
+            );
+            history.setErrorReportId(result.getErrorReportId());
+            importHistoryDao.create(history);
+            progress.setImportHistoryId(history.getId());
+            
+            if (result.isSuccess()) {
+                return Response.ok(ApiResponseDto.success("Import completed successfully", result)).build();
+            } else {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.error("Import failed: " + result.getErrorMessage()))
+                              .build();
+            }
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error importing HumanBeings from file", e);
+            
+            // Rollback transaction if it was started
+            if (upload != null) {
+                upload.cancel(true);
+            }
+            if (transactionId != null) {
+                try {
+                    transactionManager.rollback(transactionId);
+                } catch (Exception rollbackEx) {
+                    LOGGER.log(Level.WARNING, "Failed to rollback transaction", rollbackEx);
+                }
+            }
+            
+            String errorMessage = "Import failed: " + e.getMessage();
+            String username = System.getProperty("user.name", "Unknown");
+            ImportHistory history = new ImportHistory(
+                "FAILED",
+                username,
+                0,
+                0,
+                0,
+                errorMessage,
+                null
+            );
+            try {
+                importHistoryDao.create(history);
+                progress.setImportHistoryId(history.getId());
+            } catch (Exception ex) {
+                LOGGER.log(Level.WARNING, "Failed to save import history", ex);
+            }
+            
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(ApiResponseDto.error(errorMessage))
+                          .build();
+        }
+    }
+    
+    /**
+     * Chunked-commit import: chunks commit on their own, so the MinIO file is kept as soon as any
+     * chunk of the import is in the database, and the history row tracks the overall state.
+     */
+    private Response importFileInChunks(Path file, ImportFormat format, ImportCompression compression,
+                                        String transactionId, Future<?> upload, ImportHistory history,
+                                        int chunkSize, Set<Integer> committedChunks, ImportProgress progress) {
+        ImportResultDto result;
+        progress.setPhase(ImportProgress.Phase.IMPORTING);
+        try (ImportRowReader rows = openRows(file, format, compression, progress)) {
+            result = chunkedImportService.importInChunks(rows, history.getId(), chunkSize, committedChunks);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Chunked import " + history.getId() + " failed", e);
+            result = ImportResultDto.failure(e.getMessage(), 0, 0, 0, null);
+            result.setImportId(history.getId());
+        }
+
+        progress.setPhase(ImportProgress.Phase.COMMITTING);
+        boolean anyCommitted = !committedChunks.isEmpty() || result.getSuccessfullyImported() > 0;
+        String fileKey = history.getFileKey();
+        if (anyCommitted && fileKey == null) {
+            try {
+                upload.get();
+                fileKey = transactionManager.commit(transactionId);
+                LOGGER.info("Phase 2 (Commit) - Chunked import file committed: " + fileKey);
+            } catch (Exception e) {
+                // the committed chunks stay; only the download of the original file is lost
+                LOGGER.log(Level.SEVERE, "Phase 2 (Commit) - Failed to keep file of chunked import " + history.getId(), e);
+            }
+        } else {
+            upload.cancel(true);
+            transactionManager.handleDatabaseFailure(transactionId);
+        }
+
+        history.setStatus(result.isSuccess() ? "SUCCESS" : anyCommitted ? "PARTIAL" : "FAILED");
+        history.setAddedCount((history.getAddedCount() != null ? history.getAddedCount() : 0) +
+                              result.getSuccessfullyImported());
+        history.setTotalProcessed(result.getTotalProcessed());
+        history.setFailedCount(result.getFailed());
+        history.setErrorMessage(result.getErrorMessage());
+        history.setFileKey(fileKey);
+        history.setErrorReportId(result.getErrorReportId());
+        try {
+            importHistoryDao.update(history);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to save import history", e);
+        }
+
+        if (result.isSuccess()) {
+            return Response.ok(ApiResponseDto.success("Import completed successfully", result)).build();
+        }
+        return Response.status(Response.Status.BAD_REQUEST)
+                      .entity(new ApiResponseDto<>(false, "Import failed: " + result.getErrorMessage(), result))
+                      .build();
+    }
+
+    private static String resumeProblem(ImportHistory history, String fileHash, Integer chunkSize) {
+        if (history.getChunkSize() == null) {
+            return "Import " + history.getId() + " was not a chunked import";
+        }
+        if ("SUCCESS".equals(history.getStatus())) {
+            return "Import " + history.getId() + " is already complete";
+        }
+        if (!fileHash.equals(history.getFileHash())) {
+            return "The file is not the one of import " + history.getId();
+        }
+        if (chunkSize != null && !chunkSize.equals(history.getChunkSize())) {
+            return "Import " + history.getId() + " uses chunkSize " + history.getChunkSize();
+        }
+        return null;
+    }
+
+    /**
+     * Reads the spooled file through a memory-mapped view, sharing the page cache with the upload.
+     * Progress counts the bytes of the file as stored, so for a compressed upload it follows the compressed size.
+     */
+    private static ImportRowReader openRows(Path file, ImportFormat format, ImportCompression compression,
+                                            ImportProgress progress) throws IOException {
+        return progress.track(format.open(compression.decode(progress.track(new MappedFileInputStream(file)))));
+    }
+
+    private static ImportRowReader openStagedRows(StagedImport staged, ImportProgress progress) throws IOException {
+        return progress.track(ImportRowReader.prevalidated(
+            new NdjsonRowReader(progress.track(new MappedFileInputStream(staged.getRowsFile())))));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete spooled rows " + file, e);
+        }
+    }
+
+    /** Starts the MinIO upload of the spooled file; runs it right here if the executor is saturated. */
+    private Future<?> startUpload(String transactionId, Path file, ImportFormat format, ImportCompression compression) {
+        String storedType = compression.getMediaType() != null ? compression.getMediaType() : format.getMediaType();
+        String extension = format.getExtension() + compression.getExtension();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            transactionManager.prepareMinIO(transactionId, file, storedType, extension);
+            return null;
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.WARNING, "Executor rejected the MinIO upload of " + transactionId + ", uploading before the import", e);
+            task.run();
+        }
+        return task;
+    }
+
+    private static boolean uploadFailed(Future<?> upload) {
+        if (!upload.isDone() || upload.isCancelled()) {
+            return false;
+        }
+        try {
+            upload.get();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+}
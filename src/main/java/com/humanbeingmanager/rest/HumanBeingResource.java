@@ -1,16 +1,24 @@
 package com.humanbeingmanager.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.humanbeingmanager.dto.*;
 import com.humanbeingmanager.entity.HumanBeing;
 import com.humanbeingmanager.entity.Car;
 import com.humanbeingmanager.mapper.EntityDtoMapper;
+import com.humanbeingmanager.mapper.MergePatchApplier;
+import com.humanbeingmanager.service.GroupCommitWriter;
 import com.humanbeingmanager.service.HumanBeingService;
 import com.humanbeingmanager.exception.ValidationException;
 import com.humanbeingmanager.exception.EntityNotFoundException;
+import com.humanbeingmanager.exception.PreconditionFailedException;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.ejb.EJB;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.util.List;
@@ -26,13 +34,20 @@ import java.util.logging.Level;
 public class HumanBeingResource {
 
     private static final Logger LOGGER = Logger.getLogger(HumanBeingResource.class.getName());
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     @EJB
     private HumanBeingService humanBeingService;
 
+    @EJB
+    private GroupCommitWriter groupCommitWriter;
+
     @Inject
     private EntityDtoMapper mapper;
 
+    @Inject
+    private IdempotentRequestHandler idempotentRequests;
+
     @GET
     public Response getAllHumanBeings(@QueryParam("page") @DefaultValue("0") int page,
                                      @QueryParam("size") @DefaultValue("10") int size,
@@ -65,7 +80,7 @@ public class HumanBeingResource {
             Optional<HumanBeing> humanBeing = humanBeingService.getHumanBeingById(id);
             
             if (humanBeing.isPresent()) {
-                return Response.ok(mapper.toDto(humanBeing.get())).build();
+                return withETag(Response.ok(mapper.toDto(humanBeing.get())), humanBeing.get()).build();
             } else {
                 return Response.status(Response.Status.NOT_FOUND)
                               .entity(ApiResponseDto.error("HumanBeing with ID " + id + " not found"))
@@ -80,7 +95,13 @@ public class HumanBeingResource {
     }
 
     @POST
-    public Response createHumanBeing(HumanBeingDto humanBeingDto) {
+    public Response createHumanBeing(@HeaderParam(IdempotentRequestHandler.HEADER) String idempotencyKey,
+                                     HumanBeingDto humanBeingDto) {
+        return idempotentRequests.handle(idempotencyKey, "POST /humanbeings", humanBeingDto,
+                                         () -> create(humanBeingDto));
+    }
+
+    private Response create(HumanBeingDto humanBeingDto) {
         try {
             LOGGER.log(Level.INFO, "POST /api/humanbeings - Creating new HumanBeing: {0}", 
                       humanBeingDto != null ? humanBeingDto.getName() : "null");
@@ -92,8 +113,10 @@ public class HumanBeingResource {
             }
 
             HumanBeing humanBeing = mapper.toEntity(humanBeingDto);
-            HumanBeing created = humanBeingService.createHumanBeing(humanBeing);
-            return Response.status(Response.Status.CREATED).entity(mapper.toDto(created)).build();
+            HumanBeing created = groupCommitWriter.isEnabled()
+                ? groupCommitWriter.create(humanBeing)
+                : humanBeingService.createHumanBeing(humanBeing);
+            return withETag(Response.status(Response.Status.CREATED).entity(mapper.toDto(created)), created).build();
             
         } catch (ValidationException e) {
             LOGGER.log(Level.WARNING, "Validation error creating HumanBeing", e);
@@ -110,9 +133,11 @@ public class HumanBeingResource {
 
     @PUT
     @Path("/{id}")
-    public Response updateHumanBeing(@PathParam("id") Long id, HumanBeingDto humanBeingDto) {
+    public Response updateHumanBeing(@PathParam("id") Long id,
+                                     @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                     HumanBeingDto humanBeingDto) {
         try {
-            LOGGER.log(Level.INFO, "PUT /api/humanbeings/{0} - Updating HumanBeing", id);
+            LOGGER.log(Level.INFO, "PUT /api/humanbeings/{0} - Updating HumanBeing (If-Match: {1})", new Object[]{id, ifMatch});
             
             if (humanBeingDto == null) {
                 return Response.status(Response.Status.BAD_REQUEST)
@@ -122,8 +147,8 @@ public class HumanBeingResource {
 
             humanBeingDto.setId(id);
             HumanBeing humanBeing = mapper.toEntity(humanBeingDto);
-            HumanBeing updated = humanBeingService.updateHumanBeing(humanBeing);
-            return Response.ok(mapper.toDto(updated)).build();
+            HumanBeing updated = humanBeingService.updateHumanBeing(humanBeing, parseIfMatch(ifMatch));
+            return withETag(Response.ok(mapper.toDto(updated)), updated).build();
             
         } catch (ValidationException e) {
             LOGGER.log(Level.WARNING, "Validation error updating HumanBeing", e);
@@ -135,7 +160,15 @@ public class HumanBeingResource {
             return Response.status(Response.Status.NOT_FOUND)
                           .entity(ApiResponseDto.error(e.getMessage()))
                           .build();
+        } catch (PreconditionFailedException e) {
+            LOGGER.log(Level.INFO, "If-Match precondition failed for HumanBeing {0}: {1}", new Object[]{id, e.getMessage()});
+            return Response.status(Response.Status.PRECONDITION_FAILED)
+                          .entity(ApiResponseDto.error(e.getMessage()))
+                          .build();
         } catch (Exception e) {
+            if (isOptimisticLockFailure(e)) {
+                return conflict(id);
+            }
             LOGGER.log(Level.SEVERE, "Error updating HumanBeing with ID: " + id, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                           .entity(ApiResponseDto.error("Error updating HumanBeing: " + e.getMessage()))
@@ -144,6 +177,60 @@ public class HumanBeingResource {
     }
 
 
+    @PATCH
+    @Path("/{id}")
+    @Consumes({MergePatchApplier.MEDIA_TYPE, MediaType.APPLICATION_JSON})
+    public Response patchHumanBeing(@PathParam("id") Long id,
+                                    @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                    String body) {
+        try {
+            LOGGER.log(Level.INFO, "PATCH /api/humanbeings/{0} - Patching HumanBeing (If-Match: {1})", new Object[]{id, ifMatch});
+
+            if (body == null || body.isBlank()) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("Merge patch document is required"))
+                              .build();
+            }
+
+            JsonNode patch;
+            try {
+                patch = OBJECT_MAPPER.readTree(body);
+            } catch (JsonProcessingException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("Invalid JSON: " + e.getOriginalMessage()))
+                              .build();
+            }
+
+            HumanBeing patched = humanBeingService.patchHumanBeing(id, patch, parseIfMatch(ifMatch));
+            return withETag(Response.ok(mapper.toDto(patched)), patched).build();
+
+        } catch (ValidationException e) {
+            LOGGER.log(Level.WARNING, "Validation error patching HumanBeing", e);
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(ApiResponseDto.validationError(e.getMessage()))
+                          .build();
+        } catch (EntityNotFoundException e) {
+            LOGGER.log(Level.WARNING, "HumanBeing not found for patch", e);
+            return Response.status(Response.Status.NOT_FOUND)
+                          .entity(ApiResponseDto.error(e.getMessage()))
+                          .build();
+        } catch (PreconditionFailedException e) {
+            LOGGER.log(Level.INFO, "If-Match precondition failed for HumanBeing {0}: {1}", new Object[]{id, e.getMessage()});
+            return Response.status(Response.Status.PRECONDITION_FAILED)
+                          .entity(ApiResponseDto.error(e.getMessage()))
+                          .build();
+        } catch (Exception e) {
+            if (isOptimisticLockFailure(e)) {
+                return conflict(id);
+            }
+            LOGGER.log(Level.SEVERE, "Error patching HumanBeing with ID: " + id, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                          .entity(ApiResponseDto.error("Error patching HumanBeing: " + e.getMessage()))
+                          .build();
+        }
+    }
+
+
     @DELETE
     @Path("/{id}")
     public Response deleteHumanBeing(@PathParam("id") Long id) {
@@ -166,6 +253,9 @@ public class HumanBeingResource {
                           .entity(ApiResponseDto.error(e.getMessage()))
                           .build();
         } catch (Exception e) {
+            if (isOptimisticLockFailure(e)) {
+                return conflict(id);
+            }
             LOGGER.log(Level.SEVERE, "Error deleting HumanBeing with ID: " + id, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                           .entity(ApiResponseDto.error("Error deleting HumanBeing: " + e.getMessage()))
@@ -235,4 +325,50 @@ public class HumanBeingResource {
                           .build();
         }
     }
+
+    /** Strong ETag carrying the entity version, e.g. {@code "3"}. */
+    private static Response.ResponseBuilder withETag(Response.ResponseBuilder builder, HumanBeing humanBeing) {
+        if (humanBeing.getVersion() != null) {
+            builder.tag(new EntityTag(String.valueOf(humanBeing.getVersion())));
+        }
+        return builder;
+    }
+
+    /**
+     * @return the version from If-Match, {@code null} when the header is absent or {@code *}
+     * @throws PreconditionFailedException if the header cannot match any version
+     */
+    private static Long parseIfMatch(String ifMatch) throws PreconditionFailedException {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + ifMatch);
+        }
+    }
+
+    private static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof jakarta.persistence.OptimisticLockException ||
+                cause instanceof org.eclipse.persistence.exceptions.OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Response conflict(Long id) {
+        LOGGER.log(Level.INFO, "Concurrent modification of HumanBeing {0}", id);
+        return Response.status(Response.Status.CONFLICT)
+                      .entity(ApiResponseDto.error("HumanBeing with ID " + id +
+                              " was modified concurrently, reload it and retry"))
+                      .build();
+    }
 }
@@ -0,0 +1,152 @@
+package com.humanbeingmanager.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.humanbeingmanager.dto.ApiResponseDto;
+import com.humanbeingmanager.entity.IdempotencyRecord;
+import com.humanbeingmanager.service.IdempotencyService;
+import jakarta.ejb.EJB;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a POST at most once per {@code Idempotency-Key}: a retry with the same key and body gets
+ * the stored response back, a retry while the first attempt is still running gets 409.
+ */
+@ApplicationScoped
+public class IdempotentRequestHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(IdempotentRequestHandler.class.getName());
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String MAX_BODY_CHARS_PROP = "idempotency.maxBodyChars";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int UNPROCESSABLE_ENTITY = 422;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @EJB
+    private IdempotencyService idempotencyService;
+
+    /**
+     * @param scope    endpoint the key belongs to, so one key can't replay another endpoint's response
+     * @param payload  request body (raw bytes, the bound DTO or a digest of a spooled upload) used to detect a key reused for different data
+     */
+    public Response handle(String idempotencyKey, String scope, Object payload, Supplier<Response> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(ApiResponseDto.validationError(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"))
+                          .build();
+        }
+
+        String key = scope + ":" + idempotencyKey;
+        String requestHash;
+        try {
+            requestHash = fingerprint(payload);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Could not fingerprint request, running it without idempotency", e);
+            return action.get();
+        }
+
+        Date reservedAt = new Date();
+        Optional<IdempotencyRecord> earlier = idempotencyService.begin(key, requestHash, reservedAt);
+        if (earlier.isPresent()) {
+            return replay(earlier.get(), requestHash);
+        }
+
+        Response response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyService.abandon(key, reservedAt);
+            throw e;
+        }
+
+        // server errors and a full import queue are worth retrying with the same key
+        if (response.getStatus() >= 500 || response.getStatus() == Response.Status.TOO_MANY_REQUESTS.getStatusCode()) {
+            idempotencyService.abandon(key, reservedAt);
+            return response;
+        }
+        try {
+            idempotencyService.complete(key, reservedAt, response.getStatus(), storedBody(response), etagOf(response));
+        } catch (Exception e) {
+            // the work is done; losing the record only means a retry would redo it
+            LOGGER.log(Level.WARNING, "Failed to store response for idempotency key " + key, e);
+            releaseQuietly(key, reservedAt);
+        }
+        return response;
+    }
+
+    /** Gives the key up without failing a request whose work is already done; the lease expires otherwise. */
+    private void releaseQuietly(String key, Date reservedAt) {
+        try {
+            idempotencyService.abandon(key, reservedAt);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to release idempotency key " + key, e);
+        }
+    }
+
+    private Response replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return Response.status(UNPROCESSABLE_ENTITY)
+                          .entity(ApiResponseDto.error(HEADER + " was already used with a different request body"))
+                          .build();
+        }
+        if (!record.isCompleted()) {
+            return Response.status(Response.Status.CONFLICT)
+                          .header("Retry-After", "1")
+                          .entity(ApiResponseDto.error("A request with this " + HEADER + " is still being processed"))
+                          .build();
+        }
+
+        Response.ResponseBuilder builder = Response.status(record.getResponseStatus())
+                                                   .header(REPLAYED_HEADER, "true");
+        if (record.getResponseBody() != null) {
+            builder.entity(record.getResponseBody()).type(MediaType.APPLICATION_JSON);
+        } else {
+            builder.entity(ApiResponseDto.success("Request was already processed; the original response was too large to store", null));
+        }
+        if (record.getResponseEtag() != null) {
+            builder.tag(new EntityTag(record.getResponseEtag()));
+        }
+        return builder.build();
+    }
+
+    private static String storedBody(Response response) throws Exception {
+        Object entity = response.getEntity();
+        if (entity == null) {
+            return null;
+        }
+        String body = entity instanceof String ? (String) entity : OBJECT_MAPPER.writeValueAsString(entity);
+        int maxChars = Integer.parseInt(System.getProperty(MAX_BODY_CHARS_PROP, "1000000"));
+        return body.length() <= maxChars ? body : null;
+    }
+
+    private static String etagOf(Response response) {
+        EntityTag tag = response.getEntityTag();
+        return tag != null ? tag.getValue() : null;
+    }
+
+    private static String fingerprint(Object payload) throws Exception {
+        byte[] bytes = payload instanceof byte[] ? (byte[]) payload : OBJECT_MAPPER.writeValueAsBytes(payload);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,24 +1,59 @@
 package com.humanbeingmanager.rest;
 
 import com.humanbeingmanager.dto.*;
+import com.humanbeingmanager.importer.ImportCompression;
+import com.humanbeingmanager.importer.ImportFormat;
+import com.humanbeingmanager.exception.ImportRejectedException;
+import com.humanbeingmanager.service.ImportAdmissionController;
+import com.humanbeingmanager.service.ImportJob;
+import com.humanbeingmanager.service.ImportJobService;
+import com.humanbeingmanager.service.ImportProgress;
 import com.humanbeingmanager.service.ImportService;
-import com.humanbeingmanager.service.DistributedTransactionManager;
 import com.humanbeingmanager.service.MinIOService;
+import com.humanbeingmanager.service.StagedImport;
+import com.humanbeingmanager.service.StagedImportService;
 import com.humanbeingmanager.dao.ImportHistoryDao;
 import com.humanbeingmanager.entity.ImportHistory;
+import io.minio.StatObjectResponse;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.ejb.EJB;
 import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
 import org.jboss.resteasy.plugins.providers.multipart.InputPart;
 import org.jboss.resteasy.plugins.providers.multipart.MultipartFormDataInput;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.Principal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.logging.Logger;
 import java.util.logging.Level;
@@ -30,24 +65,56 @@ public class ImportResource {
 
     private static final Logger LOGGER = Logger.getLogger(ImportResource.class.getName());
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+
+    private static final String TRUSTED_PROXIES_PROP = "import.admission.trustedProxies";
+
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+
+    // report ids are generated by MinIOService, so anything else cannot name a report
+    private static final Pattern ERROR_REPORT_ID = Pattern.compile("[0-9a-f-]{36}\\.csv");
+
     @EJB
     private ImportService importService;
 
     @EJB
     private ImportHistoryDao importHistoryDao;
-    
+
     @EJB
-    private DistributedTransactionManager transactionManager;
+    private ImportJobService importJobs;
     
     @EJB
     private MinIOService minIOService;
-    
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @EJB
+    private StagedImportService stagedImports;
+
+    @EJB
+    private ImportAdmissionController importAdmission;
+
+    @Context
+    private SecurityContext securityContext;
+
+    @Context
+    private HttpServletRequest httpRequest;
+
+    @Inject
+    private IdempotentRequestHandler idempotentRequests;
+
+    @Inject
+    private FileImportHandler fileImports;
 
     @POST
     @Path("/humanbeings")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response importHumanBeings(List<HumanBeingDto> humanBeings) {
+    public Response importHumanBeings(@HeaderParam(IdempotentRequestHandler.HEADER) String idempotencyKey,
+                                      List<HumanBeingDto> humanBeings) {
+        return idempotentRequests.handle(idempotencyKey, "POST /import/humanbeings", humanBeings,
+                                         () -> runAdmitted(0, false, progress -> importList(humanBeings), () -> { },
+                                                           new AtomicBoolean()));
+    }
+
+    private Response importList(List<HumanBeingDto> humanBeings) {
         try {
             LOGGER.log(Level.INFO, "POST /api/import/humanbeings - Importing {0} HumanBeings", 
                       humanBeings != null ? humanBeings.size() : 0);
@@ -73,6 +140,7 @@ public class ImportResource {
                 result.getErrorMessage(),
                 null 
             );
+            history.setErrorReportId(result.getErrorReportId());
             importHistoryDao.create(history);
             
             if (result.isSuccess()) {
@@ -110,29 +178,84 @@ public class ImportResource {
         }
     }
 
+    /**
+     * Import history, newest first, one keyset page at a time. {@code from}/{@code to} take an ISO
+     * instant or a date; a date {@code to} includes that whole day. The total is counted for the first
+     * page only; pages requested with a cursor leave it {@code null}.
+     */
     @GET
     @Path("/history")
-    public Response getImportHistory() {
+    public Response getImportHistory(@QueryParam("size") @DefaultValue("20") int size,
+                                     @QueryParam("cursor") String cursor,
+                                     @QueryParam("status") String status,
+                                     @QueryParam("username") String username,
+                                     @QueryParam("from") String from,
+                                     @QueryParam("to") String to) {
         try {
-            LOGGER.log(Level.INFO, "GET /api/import/history - Retrieving import history");
-            
-            List<ImportHistory> historyList = importHistoryDao.findAll();
+            LOGGER.log(Level.INFO, "GET /api/import/history - Retrieving import history (size: {0}, cursor: {1}, status: {2}, username: {3}, from: {4}, to: {5})",
+                      new Object[]{size, cursor, status, username, from, to});
+
+            if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("size must be between 1 and " + MAX_HISTORY_PAGE_SIZE))
+                              .build();
+            }
+            Date fromDate;
+            Date toDate;
+            Date afterCreatedAt = null;
+            Long afterId = null;
+            try {
+                fromDate = parseHistoryBound(from, false);
+                toDate = parseHistoryBound(to, true);
+                if (cursor != null && !cursor.isEmpty()) {
+                    String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Invalid cursor");
+                    }
+                    afterCreatedAt = new Date(Long.parseLong(parts[0]));
+                    afterId = Long.parseLong(parts[1]);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(ApiResponseDto.validationError("Invalid history query: " + e.getMessage()))
+                              .build();
+            }
+            String statusFilter = status == null || status.isEmpty() ? null : status;
+            String usernameFilter = username == null || username.isEmpty() ? null : username;
+
+            // one extra row tells whether there is a next page
+            List<ImportHistory> historyList = importHistoryDao.findPage(statusFilter, usernameFilter, fromDate, toDate,
+                                                                        afterCreatedAt, afterId, size + 1);
+            String nextCursor = null;
+            if (historyList.size() > size) {
+                historyList = historyList.subList(0, size);
+                ImportHistory last = historyList.get(size - 1);
+                nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getCreatedAt().getTime() + ":" + last.getId()).getBytes(StandardCharsets.US_ASCII));
+            }
+            // a full COUNT per page would cost more than the page itself; only the first page reports the total
+            Long total = afterId == null ? importHistoryDao.countFiltered(statusFilter, usernameFilter, fromDate, toDate)
+                                         : null;
             
             List<ImportHistoryDto> historyDtos = historyList.stream()
-                .map(history -> new ImportHistoryDto(
-                    history.getId(),
-                    history.getStatus(),
-                    history.getUsername(),
-                    history.getAddedCount(),
-                    history.getTotalProcessed(),
-                    history.getFailedCount(),
-                    history.getErrorMessage(),
-                    history.getFileKey(),
-                    history.getCreatedAt()
-                ))
+                .map(history -> {
+                    ImportHistoryDto dto = new ImportHistoryDto(
+                        history.getId(),
+                        history.getStatus(),
+                        history.getUsername(),
+                        history.getAddedCount(),
+                        history.getTotalProcessed(),
+                        history.getFailedCount(),
+                        history.getErrorMessage(),
+                        history.getFileKey(),
+                        history.getCreatedAt()
+                    );
+                    dto.setErrorReportId(history.getErrorReportId());
+                    return dto;
+                })
                 .collect(Collectors.toList());
             
-            return Response.ok(historyDtos).build();
+            return Response.ok(new PaginatedResponseDto<>(historyDtos, total, size, nextCursor)).build();
             
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error retrieving import history", e);
@@ -141,20 +264,40 @@ public class ImportResource {
                           .build();
         }
     }
+
+    private static Date parseHistoryBound(String value, boolean upper) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (value.length() == 10) {
+            LocalDate day = LocalDate.parse(value);
+            return Date.from((upper ? day.plusDays(1) : day).atStartOfDay(ZoneOffset.UTC).toInstant());
+        }
+        return Date.from(Instant.parse(value));
+    }
     
     @POST
     @Path("/humanbeings/file")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
-    public Response importHumanBeingsFromFile(MultipartFormDataInput input) { 
+    public Response importHumanBeingsFromFile(@HeaderParam(IdempotentRequestHandler.HEADER) String idempotencyKey,
+                                              @QueryParam("chunkSize") Integer chunkSize,
+                                              @QueryParam("resumeImportId") Long resumeImportId,
+                                              @QueryParam("async") @DefaultValue("false") boolean async,
+                                              @QueryParam("bulk") @DefaultValue("false") boolean bulk,
+                                              @QueryParam("dryRun") @DefaultValue("false") boolean dryRun,
+                                              MultipartFormDataInput input) {
         
         LOGGER.info("========== START FILE IMPORT ==========");
         LOGGER.info("Timestamp: " + new java.util.Date());
         LOGGER.info("MinIO Endpoint: " + System.getenv("MINIO_ENDPOINT"));
         LOGGER.info("MinIO Bucket: " + System.getenv("MINIO_BUCKET_NAME"));
         
-        String transactionId = null;
-        String fileKey = null;
-        
+        if (dryRun && (chunkSize != null || resumeImportId != null || bulk)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(ApiResponseDto.validationError("dryRun cannot be combined with chunkSize, resumeImportId or bulk; pass bulk to the commit"))
+                          .build();
+        }
+
         try {
             LOGGER.info("Parsing multipart form data");
             Map<String, List<InputPart>> formData = input.getFormDataMap();
@@ -178,177 +321,233 @@ public class ImportResource {
             InputStream fileInputStream = inputPart.getBody(InputStream.class, null);
             
             String fileName = getFileName(inputPart);
-            String contentType = inputPart.getMediaType().toString();
+            String contentType = inputPart.getMediaType() != null ? inputPart.getMediaType().toString() : null;
+            ImportFormat format = ImportFormat.detect(contentType, fileName);
             LOGGER.info("File name: " + fileName);
-            LOGGER.info("Content type: " + contentType);
-            if (contentType == null || contentType.isEmpty()) {
-                contentType = "application/json";
-            }
-            
-            // Read file content into buffer
-            java.io.ByteArrayOutputStream buffer = new java.io.ByteArrayOutputStream();
-            byte[] data = new byte[8192];
-            int nRead;
-            while ((nRead = fileInputStream.read(data, 0, data.length)) != -1) {
-                buffer.write(data, 0, nRead);
-            }
-            byte[] fileBytes = buffer.toByteArray();
-            long fileSize = fileBytes.length;
+            LOGGER.info("Content type: " + contentType + ", read as " + format);
             
-            LOGGER.log(Level.INFO, "POST /api/import/humanbeings/file - Uploading file: {0}, size: {1}", 
-                      new Object[]{fileName, fileSize});
-            
-            // Validate JSON before upload
-            List<HumanBeingDto> humanBeings;
+            // Spool to disk: neither the fingerprint, the upload nor the import needs the file in memory
+            java.nio.file.Path spooled = Files.createTempFile("import-", ".upload");
+            AtomicBoolean handedOff = new AtomicBoolean();
             try {
-                String fileContent = new String(fileBytes);
-                humanBeings = objectMapper.readValue(fileContent, 
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, HumanBeingDto.class));
-            } catch (Exception e) {
-                return Response.status(Response.Status.BAD_REQUEST)
-                              .entity(ApiResponseDto.error("Invalid JSON format: " + e.getMessage()))
-                              .build();
-            }
-            
-            if (humanBeings == null || humanBeings.isEmpty()) {
-                return Response.status(Response.Status.BAD_REQUEST)
-                              .entity(ApiResponseDto.validationError("No HumanBeings data in file"))
-                              .build();
-            }
-            
-            // Phase 1: Prepare MinIO (upload with temp key)
-            try {
-                java.io.ByteArrayInputStream fileStream = new java.io.ByteArrayInputStream(fileBytes);
-                transactionId = transactionManager.prepareMinIO(fileStream, contentType, fileSize);
-                LOGGER.info("Phase 1 (Prepare) - MinIO: Transaction ID: " + transactionId);
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Phase 1 (Prepare) - MinIO failed", e);
-                transactionManager.handleMinIOFailure(transactionId != null ? transactionId : "unknown");
-                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                              .entity(ApiResponseDto.error("Failed to upload file to storage: " + e.getMessage()))
-                              .build();
-            }
-            
-            // Phase 1: Prepare Database (check readiness)
-            LOGGER.info("Phase 1 (Prepare) - Database: Checking readiness for transaction: " + transactionId);
-            boolean dbPrepared = false;
-            try {
-                dbPrepared = transactionManager.prepareDatabase(transactionId);
-                if (!dbPrepared) {
-                    LOGGER.severe("Phase 1 (Prepare) - Database: NOT READY for transaction: " + transactionId);
-                    transactionManager.handleDatabaseFailure(transactionId);
-                    return Response.status(Response.Status.SERVICE_UNAVAILABLE)
-                                  .entity(ApiResponseDto.error("Database is not available"))
-                                  .build();
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (InputStream in = new DigestInputStream(fileInputStream, digest)) {
+                    Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
                 }
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Phase 1 (Prepare) - Database readiness check failed", e);
-                transactionManager.handleDatabaseFailure(transactionId);
-                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
-                              .entity(ApiResponseDto.error("Database readiness check failed: " + e.getMessage()))
-                              .build();
-            }
-            
-            LOGGER.info("Phase 1 (Prepare) - Database: Executing import for transaction: " + transactionId);
-            LOGGER.info("Number of HumanBeings to import: " + humanBeings.size());
-            ImportResultDto result;
-            try {
-                LOGGER.info("Calling transactionManager.executeImportInTransaction");
-                result = transactionManager.executeImportInTransaction(transactionId, humanBeings);
-                LOGGER.info("Import completed. Success: " + result.isSuccess());
-                
-                if (!result.isSuccess()) {
-                    LOGGER.warning("Database import failed, rolling back transaction: " + transactionId);
-                    transactionManager.handleDatabaseFailure(transactionId);
-                    return Response.status(Response.Status.BAD_REQUEST)
-                                  .entity(ApiResponseDto.error("Import failed: " + result.getErrorMessage()))
-                                  .build();
+                String fileHash = HexFormat.of().formatHex(digest.digest());
+                LOGGER.log(Level.INFO, "POST /api/import/humanbeings/file - Uploading file: {0}, size: {1}",
+                          new Object[]{fileName, Files.size(spooled)});
+                // the compressed original is what gets hashed and archived; only the reader inflates it
+                ImportCompression compression = ImportCompression.detect(
+                    inputPart.getHeaders().getFirst("Content-Encoding"), spooled);
+                if (compression != ImportCompression.NONE) {
+                    LOGGER.info("Upload is " + compression + "-compressed");
+                }
+
+                String fingerprint = fileHash + "|" + format + "|" + chunkSize + "|" + resumeImportId + "|" + async + "|" + bulk +
+                                     "|" + dryRun;
+                Function<ImportProgress, Response> fileImport = dryRun
+                    ? progress -> fileImports.dryRun(spooled, format, compression, fileHash, progress)
+                    : progress -> fileImports.importFile(spooled, format, compression, fileHash, chunkSize,
+                                                         resumeImportId, bulk, progress);
+                return idempotentRequests.handle(idempotencyKey, "POST /import/humanbeings/file", fingerprint,
+                                                 () -> runAdmitted(spooled.toFile().length(), async, fileImport,
+                                                                   () -> deleteQuietly(spooled), handedOff));
+            } finally {
+                if (!handedOff.get()) {
+                    Files.deleteIfExists(spooled);
                 }
-                
-                LOGGER.info("Phase 1 (Prepare) - Database: Import completed successfully, transaction prepared (NOT committed), ready for Phase 2");
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Phase 1 (Prepare) - Database import failed", e);
-                transactionManager.handleDatabaseFailure(transactionId);
-                return Response.status(Response.Status.BAD_REQUEST)
-                              .entity(ApiResponseDto.error("Import failed: " + e.getMessage()))
-                              .build();
-            }
-            
-            // Phase 2: Commit (MinIO and database)
-            try {
-                fileKey = transactionManager.commit(transactionId);
-                LOGGER.info("Phase 2 (Commit) - Transaction committed: " + transactionId + ", File key: " + fileKey);
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Phase 2 (Commit) - Failed", e);
-                // Transaction manager will handle rollback
-                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                              .entity(ApiResponseDto.error("Failed to commit transaction: " + e.getMessage()))
-                              .build();
-            }
-            
-            // Save import history
-            String username = System.getProperty("user.name", "Unknown");
-            String status = result.isSuccess() ? "SUCCESS" : "FAILED";
-            ImportHistory history = new ImportHistory(
-                status,
-                username,
-                result.getSuccessfullyImported(),
-                result.getTotalProcessed(),
-                result.getFailed(),
-                result.getErrorMessage(),
-                fileKey
-            );
-            importHistoryDao.create(history);
-            
-            if (result.isSuccess()) {
-                return Response.ok(ApiResponseDto.success("Import completed successfully", result)).build();
-            } else {
-                return Response.status(Response.Status.BAD_REQUEST)
-                              .entity(ApiResponseDto.error("Import failed: " + result.getErrorMessage()))
-                              .build();
             }
-            
+
         } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error importing HumanBeings from file", e);
-            
-            // Rollback transaction if it was started
-            if (transactionId != null) {
-                try {
-                    transactionManager.rollback(transactionId);
-                } catch (Exception rollbackEx) {
-                    LOGGER.log(Level.WARNING, "Failed to rollback transaction", rollbackEx);
-                }
+            LOGGER.log(Level.SEVERE, "Error reading uploaded import file", e);
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(ApiResponseDto.error("Import failed: " + e.getMessage()))
+                          .build();
+        }
+    }
+
+    /**
+     * Commits the rows of a dry run by its token: nothing is uploaded or parsed again.
+     * {@code bulk} and {@code async} work as for a file import.
+     */
+    @POST
+    @Path("/humanbeings/commit")
+    public Response commitDryRun(@HeaderParam(IdempotentRequestHandler.HEADER) String idempotencyKey,
+                                 @QueryParam("token") String token,
+                                 @QueryParam("async") @DefaultValue("false") boolean async,
+                                 @QueryParam("bulk") @DefaultValue("false") boolean bulk) {
+        LOGGER.log(Level.INFO, "POST /api/import/humanbeings/commit - Committing dry run (async: {0}, bulk: {1})",
+                   new Object[]{async, bulk});
+        if (token == null || token.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(ApiResponseDto.validationError("token is required"))
+                          .build();
+        }
+        Optional<StagedImport> staged = stagedImports.find(token);
+        if (!staged.isPresent()) {
+            return Response.status(Response.Status.NOT_FOUND)
+                          .entity(ApiResponseDto.error("Unknown or expired commit token"))
+                          .build();
+        }
+        long totalBytes = staged.get().getRowsFile().toFile().length();
+        Function<ImportProgress, Response> commit = progress -> fileImports.commitStaged(token, bulk, progress);
+        String fingerprint = token + "|" + async + "|" + bulk;
+        return idempotentRequests.handle(idempotencyKey, "POST /import/humanbeings/commit", fingerprint,
+                                         () -> runAdmitted(totalBytes, async, commit, () -> { }, new AtomicBoolean()));
+    }
+
+    /**
+     * Runs an import once admission control lets it: an async one queues as a job without holding a
+     * thread, a synchronous one waits here for at most {@code import.admission.maxWaitMs}. A full queue
+     * answers 429 with Retry-After.
+     * @param cleanup   runs when the import is over
+     * @param handedOff set once a background job owns {@code cleanup}
+     */
+    private Response runAdmitted(long totalBytes, boolean async, Function<ImportProgress, Response> fileImport,
+                                 Runnable cleanup, AtomicBoolean handedOff) {
+        ImportAdmissionController.Ticket ticket;
+        try {
+            ticket = importAdmission.enqueue(clientId());
+        } catch (ImportRejectedException e) {
+            return tooManyImports(e);
+        }
+        if (async) {
+            Response accepted = startImportJob(totalBytes, fileImport, () -> {
+                ticket.release();
+                cleanup.run();
+            }, ticket);
+            handedOff.set(true);
+            return accepted;
+        }
+        try {
+            ticket.await();
+            return fileImport.apply(new ImportProgress(totalBytes));
+        } catch (ImportRejectedException e) {
+            return tooManyImports(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                          .entity(ApiResponseDto.error("Interrupted while waiting for an import slot"))
+                          .build();
+        } finally {
+            ticket.release();
+        }
+    }
+
+    private static Response tooManyImports(ImportRejectedException e) {
+        return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                      .header("Retry-After", e.getRetryAfterSeconds())
+                      .entity(ApiResponseDto.error(e.getMessage()))
+                      .build();
+    }
+
+    /**
+     * Who an import is queued for: the authenticated user, else the client address. X-Forwarded-For is
+     * believed only from the proxies listed in {@code import.admission.trustedProxies}.
+     */
+    private String clientId() {
+        Principal principal = securityContext != null ? securityContext.getUserPrincipal() : null;
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        Set<String> trustedProxies = Arrays.stream(System.getProperty(TRUSTED_PROXIES_PROP, "").split(","))
+            .map(String::trim)
+            .filter(address -> !address.isEmpty())
+            .collect(Collectors.toSet());
+        return "addr:" + clientAddress(httpRequest.getRemoteAddr(), httpRequest.getHeader("X-Forwarded-For"),
+                                       trustedProxies);
+    }
+
+    /**
+     * The peer address, or, when the peer is a trusted proxy, the nearest X-Forwarded-For hop that is not
+     * one: hops further left were written by the client and prove nothing.
+     */
+    static String clientAddress(String remoteAddr, String forwardedFor, Set<String> trustedProxies) {
+        if (forwardedFor == null || !trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+        String client = remoteAddr;
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
             }
-            
-            String errorMessage = "Import failed: " + e.getMessage();
-            String username = System.getProperty("user.name", "Unknown");
-            ImportHistory history = new ImportHistory(
-                "FAILED",
-                username,
-                0,
-                0,
-                0,
-                errorMessage,
-                null
-            );
-            try {
-                importHistoryDao.create(history);
-            } catch (Exception ex) {
-                LOGGER.log(Level.WARNING, "Failed to save import history", ex);
+            client = hop;
+            if (!trustedProxies.contains(hop)) {
+                break;
             }
-            
-            return Response.status(Response.Status.BAD_REQUEST)
-                          .entity(ApiResponseDto.error(errorMessage))
+        }
+        return client;
+    }
+
+    /** Runs the import in a background job, started once admitted, and answers 202 with the job to poll. */
+    private Response startImportJob(long totalBytes, Function<ImportProgress, Response> fileImport, Runnable cleanup,
+                                    ImportAdmissionController.Ticket ticket) {
+        ImportProgress progress = new ImportProgress(totalBytes);
+        ImportJob job = importJobs.submit(progress, running -> {
+            Response response = fileImport.apply(progress);
+            running.finish(response.getStatus(), response.getEntity());
+        }, cleanup, ticket.admission());
+
+        return Response.status(Response.Status.ACCEPTED)
+                      .location(URI.create("import/jobs/" + job.getId()))
+                      .entity(ApiResponseDto.success("Import started", toDto(job)))
+                      .build();
+    }
+
+    @GET
+    @Path("/jobs/{id}")
+    public Response getImportJob(@PathParam("id") String jobId) {
+        Optional<ImportJob> job = importJobs.find(jobId);
+        if (!job.isPresent()) {
+            return Response.status(Response.Status.NOT_FOUND)
+                          .entity(ApiResponseDto.error("Import job not found: " + jobId))
                           .build();
         }
+        return Response.ok(toDto(job.get())).build();
     }
-    
+
+    private static ImportJobDto toDto(ImportJob job) {
+        ImportProgress progress = job.getProgress();
+        ImportJobDto dto = new ImportJobDto();
+        dto.setId(job.getId());
+        dto.setPhase(progress.getPhase().name());
+        dto.setRowsProcessed(progress.getRowsProcessed());
+        dto.setBytesRead(progress.getBytesRead());
+        dto.setTotalBytes(progress.getTotalBytes());
+        dto.setRowsPerSecond(progress.getRowsPerSecond());
+        dto.setEtaSeconds(progress.getEtaSeconds());
+        dto.setImportHistoryId(progress.getImportHistoryId());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setResultStatus(job.getResultStatus());
+        dto.setResult(job.getResult());
+        return dto;
+    }
+
+    private static void deleteQuietly(java.nio.file.Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete spooled import file " + file, e);
+        }
+    }
+
+    /**
+     * Serves the archived import file. A single {@code Range} of bytes is answered with 206 and only
+     * that slice is read from MinIO; {@code If-Range} drops the range when the file's ETag or
+     * modification time no longer matches. Multi-range requests get the whole file.
+     */
     @GET
     @Path("/file/{id}")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
-    public Response downloadImportFile(@PathParam("id") Long importId) {
+    public Response downloadImportFile(@PathParam("id") Long importId,
+                                       @HeaderParam("Range") String range,
+                                       @HeaderParam("If-Range") String ifRange) {
         try {
-            LOGGER.log(Level.INFO, "GET /api/import/file/{0} - Downloading file", importId);
+            LOGGER.log(Level.INFO, "GET /api/import/file/{0} - Downloading file (range: {1})", new Object[]{importId, range});
             
             ImportHistory history = importHistoryDao.findById(importId)
                 .orElseThrow(() -> new jakarta.ws.rs.NotFoundException("Import history not found: " + importId));
@@ -359,11 +558,54 @@ public class ImportResource {
                               .build();
             }
             
-            InputStream fileStream = minIOService.downloadFile(history.getFileKey());
-            
-            return Response.ok(fileStream)
-                          .header("Content-Disposition", "attachment; filename=\"import_" + importId + ".json\"")
-                          .header("Content-Type", "application/json")
+            StatObjectResponse stat = minIOService.statFile(history.getFileKey());
+            long size = stat.size();
+            String etag = "\"" + stat.etag() + "\"";
+            ZonedDateTime lastModified = stat.lastModified();
+
+            long[] slice = null;
+            if (range != null && (ifRange == null || ifRangeMatches(ifRange, etag, lastModified))) {
+                slice = parseRange(range, size);
+                if (slice != null && slice.length == 0) {
+                    return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                  .header("Content-Range", "bytes */" + size)
+                                  .header("Accept-Ranges", "bytes")
+                                  .build();
+                }
+            }
+            long offset = slice != null ? slice[0] : 0;
+            long length = slice != null ? slice[1] - slice[0] + 1 : size;
+
+            InputStream fileStream = minIOService.downloadFile(history.getFileKey(), offset, slice != null ? length : null);
+            ImportFormat format = ImportFormat.fromFileName(history.getFileKey());
+            if (format == null) {
+                format = ImportFormat.JSON;
+            }
+            // served as stored: a compressed upload downloads compressed
+            ImportCompression compression = ImportCompression.fromFileName(history.getFileKey());
+            String contentType = compression.getMediaType() != null ? compression.getMediaType() : format.getMediaType();
+
+            StreamingOutput body = output -> {
+                try (InputStream in = fileStream) {
+                    byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        output.write(buffer, 0, read);
+                    }
+                }
+            };
+            Response.ResponseBuilder response = slice != null
+                ? Response.status(Response.Status.PARTIAL_CONTENT)
+                          .header("Content-Range", "bytes " + slice[0] + "-" + slice[1] + "/" + size)
+                : Response.ok();
+            return response.entity(body)
+                          .header("Content-Disposition", "attachment; filename=\"import_" + importId +
+                                                         format.getExtension() + compression.getExtension() + "\"")
+                          .header("Content-Type", contentType)
+                          .header("Content-Length", length)
+                          .header("Accept-Ranges", "bytes")
+                          .header("ETag", etag)
+                          .header("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(lastModified))
                           .build();
             
         } catch (jakarta.ws.rs.NotFoundException e) {
@@ -377,6 +619,95 @@ public class ImportResource {
                           .build();
         }
     }
+
+    /** Serves the full error report of an import, as linked from its result and history entry. */
+    @GET
+    @Path("/error-reports/{id}")
+    @Produces("text/csv")
+    public Response downloadErrorReport(@PathParam("id") String reportId) {
+        if (!ERROR_REPORT_ID.matcher(reportId).matches()) {
+            return Response.status(Response.Status.NOT_FOUND)
+                          .entity("Error report not found: " + reportId)
+                          .build();
+        }
+        String key = MinIOService.errorReportKey(reportId);
+        if (!minIOService.fileExists(key)) {
+            return Response.status(Response.Status.NOT_FOUND)
+                          .entity("Error report not found: " + reportId)
+                          .build();
+        }
+        try {
+            InputStream reportStream = minIOService.downloadFile(key);
+            StreamingOutput body = output -> {
+                try (InputStream in = reportStream) {
+                    in.transferTo(output);
+                }
+            };
+            return Response.ok(body)
+                          .header("Content-Disposition", "attachment; filename=\"import_errors_" + reportId + "\"")
+                          .build();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error downloading import error report", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                          .entity("Error downloading error report: " + e.getMessage())
+                          .build();
+        }
+    }
+
+    /**
+     * Parses a single {@code bytes=} range against the file size.
+     *
+     * @return inclusive {@code [first, last]}; an empty array when the range is unsatisfiable;
+     *         {@code null} when the header is ignored (malformed, other units or several ranges)
+     */
+    static long[] parseRange(String header, long size) {
+        String value = header.trim();
+        if (!value.startsWith("bytes=") || value.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = value.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return new long[0];
+                }
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+                return null;
+            }
+            if (start >= size) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** An entity tag must match strongly; a date must equal the file's modification time to the second. */
+    static boolean ifRangeMatches(String ifRange, String etag, ZonedDateTime lastModified) {
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(etag);
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return date.toEpochSecond() == lastModified.toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
     
     private String getFileName(InputPart inputPart) {
         String header = inputPart.getHeaders().getFirst("Content-Disposition");
@@ -0,0 +1,43 @@
+package com.humanbeingmanager.rest;
+
+import com.humanbeingmanager.service.CoordinateOccupancyFilter;
+import com.humanbeingmanager.service.GroupCommitWriter;
+import com.humanbeingmanager.service.ImportAdmissionController;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/metrics")
+@RequestScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class MetricsResource {
+
+    @EJB
+    private GroupCommitWriter groupCommitWriter;
+
+    @EJB
+    private CoordinateOccupancyFilter coordinateOccupancyFilter;
+
+    @EJB
+    private ImportAdmissionController importAdmission;
+
+    @GET
+    @Path("/group-commit")
+    public Response getGroupCommitMetrics() {
+        return Response.ok(groupCommitWriter.getMetrics()).build();
+    }
+
+    @GET
+    @Path("/coordinate-filter")
+    public Response getCoordinateFilterMetrics() {
+        return Response.ok(coordinateOccupancyFilter.getMetrics()).build();
+    }
+
+    @GET
+    @Path("/import-admission")
+    public Response getImportAdmissionMetrics() {
+        return Response.ok(importAdmission.getMetrics()).build();
+    }
+}
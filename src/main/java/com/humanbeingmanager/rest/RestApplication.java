@@ -14,6 +14,7 @@ public class RestApplication extends Application {
         classes.add(HumanBeingResource.class);
         classes.add(SpecialOperationsResource.class);
         classes.add(ImportResource.class);
+        classes.add(MetricsResource.class);
         classes.add(CorsFilter.class);
         return classes;
     }
@@ -0,0 +1,58 @@
+package com.humanbeingmanager.service;
+
+import jakarta.ejb.LocalBean;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceContextType;
+import java.util.StringJoiner;
+
+/**
+ * Coordinate locks backed by PostgreSQL transaction-scoped advisory locks,
+ * so creates on different nodes queue on the same key instead of the row lock timeout.
+ */
+@Stateless
+@LocalBean
+public class AdvisoryCoordinateLockProvider implements CoordinateLockProvider {
+
+    private static final int KEYS_PER_STATEMENT = 1000;
+
+    // keys are sorted before locking so concurrent importers always acquire in the same order
+    private static final String LOCK_SQL =
+        "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(k) FROM " +
+        "(SELECT k FROM unnest(string_to_array(?1, ',')::bigint[]) AS t(k) ORDER BY k) ordered) locked";
+
+    private static final String LOCK_SHARED_SQL = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock_shared(?1)) locked";
+    private static final String LOCK_EXCLUSIVE_SQL = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(?1)) locked";
+
+    @PersistenceContext(unitName = "HumanBeingPU", type = PersistenceContextType.TRANSACTION)
+    private EntityManager entityManager;
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public void lockForTransaction(long namespace, long[] keys) {
+        entityManager.createNativeQuery(LOCK_SHARED_SQL)
+                     .setParameter(1, namespace)
+                     .getSingleResult();
+        for (int from = 0; from < keys.length; from += KEYS_PER_STATEMENT) {
+            int to = Math.min(keys.length, from + KEYS_PER_STATEMENT);
+            StringJoiner joined = new StringJoiner(",");
+            for (int i = from; i < to; i++) {
+                joined.add(Long.toString(keys[i]));
+            }
+            entityManager.createNativeQuery(LOCK_SQL)
+                         .setParameter(1, joined.toString())
+                         .getSingleResult();
+        }
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public void lockNamespaceForTransaction(long namespace) {
+        entityManager.createNativeQuery(LOCK_EXCLUSIVE_SQL)
+                     .setParameter(1, namespace)
+                     .getSingleResult();
+    }
+}
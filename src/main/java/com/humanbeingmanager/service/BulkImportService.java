@@ -0,0 +1,346 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.dto.HumanBeingDto;
+import com.humanbeingmanager.dto.ImportResultDto;
+import com.humanbeingmanager.entity.Car;
+import com.humanbeingmanager.entity.HumanBeing;
+import com.humanbeingmanager.importer.ImportRowReader;
+import com.humanbeingmanager.mapper.EntityDtoMapper;
+import com.humanbeingmanager.validator.BusinessRulesValidator;
+import com.humanbeingmanager.validator.ParallelRowValidator;
+import com.humanbeingmanager.validator.ValidationErrorCode;
+import com.humanbeingmanager.validator.ValidationErrors;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * High-volume import engine: rows are streamed with {@code COPY} into the unlogged
+ * {@code import_staging} table, checked there with set-based SQL and moved into {@code cars} and
+ * {@code human_beings} by a single {@code INSERT ... SELECT}. No entity is managed, so neither the
+ * persistence context nor the per-row insert round trips grow with the file.
+ *
+ * Runs on the JTA connection of the caller's transaction: staged rows are never visible to other
+ * sessions and a failed import leaves nothing behind. Row errors use the same messages as
+ * {@link ImportService}.
+ */
+@Stateless
+public class BulkImportService {
+
+    private static final Logger LOGGER = Logger.getLogger(BulkImportService.class.getName());
+
+    private static final String CHUNK_SIZE_PROP = "import.chunkSize";
+    private static final int COPY_BUFFER_BYTES = 1 << 20;
+
+    private static final String COPY_SQL =
+        "COPY import_staging (load_id, row_no, name, x, y, creation_date, real_hero, has_toothpick, car_id, " +
+        "car_name, car_cool, mood, impact_speed, soundtrack_name, minutes_of_waiting, weapon_type) " +
+        "FROM STDIN WITH (FORMAT csv)";
+
+    // the first row of a coordinate pair either clashes with a stored row or not; later rows clash with the first
+    private static final String COORDINATE_CLASH_SQL =
+        "SELECT row_no, first_row, x, y FROM (" +
+        "SELECT row_no, x, y, MIN(row_no) OVER (PARTITION BY x, y) AS first_row " +
+        "FROM import_staging WHERE load_id = ?) s " +
+        "WHERE row_no > first_row OR EXISTS (SELECT 1 FROM human_beings h WHERE h.x = s.x AND h.y = s.y) " +
+        "ORDER BY row_no";
+
+    private static final String MISSING_CAR_SQL =
+        "SELECT s.row_no, s.car_id FROM import_staging s " +
+        "WHERE s.load_id = ? AND s.car_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM cars c WHERE c.id = s.car_id) " +
+        "ORDER BY s.row_no";
+
+    private static final String HUMAN_BEING_COLUMNS =
+        "name, x, y, creation_date, real_hero, has_toothpick, car_id, mood, impact_speed, " +
+        "soundtrack_name, minutes_of_waiting, weapon_type, version";
+
+    // one new car per row, with ids drawn up front so every row knows its car
+    private static final String INSERT_SQL =
+        "WITH staged AS (" +
+        "SELECT s.*, CASE WHEN s.car_id IS NULL THEN nextval(pg_get_serial_sequence('cars', 'id')) END AS new_car_id " +
+        "FROM import_staging s WHERE s.load_id = ?), " +
+        "new_cars AS (INSERT INTO cars (id, name, cool, version) " +
+        "SELECT new_car_id, car_name, car_cool, 1 FROM staged WHERE new_car_id IS NOT NULL) " +
+        "INSERT INTO human_beings (" + HUMAN_BEING_COLUMNS + ") " +
+        "SELECT name, x, y, creation_date, real_hero, has_toothpick, COALESCE(car_id, new_car_id), mood, " +
+        "impact_speed, soundtrack_name, minutes_of_waiting, weapon_type, 1 FROM staged ORDER BY row_no";
+
+    // car deduplication: rows share the existing car with their (name, cool), or one new car per pair
+    private static final String INSERT_DEDUPLICATED_SQL =
+        "WITH pairs AS (" +
+        "SELECT p.car_name, p.car_cool, " +
+        "(SELECT MIN(c.id) FROM cars c WHERE c.name = p.car_name AND c.cool = p.car_cool) AS existing_id " +
+        "FROM (SELECT DISTINCT car_name, car_cool FROM import_staging WHERE load_id = ? AND car_id IS NULL) p), " +
+        "resolved AS (" +
+        "SELECT car_name, car_cool, existing_id IS NULL AS fresh, " +
+        "COALESCE(existing_id, nextval(pg_get_serial_sequence('cars', 'id'))) AS id FROM pairs), " +
+        "new_cars AS (INSERT INTO cars (id, name, cool, version) " +
+        "SELECT id, car_name, car_cool, 1 FROM resolved WHERE fresh) " +
+        "INSERT INTO human_beings (" + HUMAN_BEING_COLUMNS + ") " +
+        "SELECT s.name, s.x, s.y, s.creation_date, s.real_hero, s.has_toothpick, COALESCE(s.car_id, r.id), s.mood, " +
+        "s.impact_speed, s.soundtrack_name, s.minutes_of_waiting, s.weapon_type, 1 " +
+        "FROM import_staging s LEFT JOIN resolved r " +
+        "ON s.car_id IS NULL AND r.car_name = s.car_name AND r.car_cool = s.car_cool " +
+        "WHERE s.load_id = ? ORDER BY s.row_no";
+
+    private static final String CLEAR_STAGING_SQL = "DELETE FROM import_staging WHERE load_id = ?";
+
+    @Resource(lookup = "java:/PostgresDruidDS")
+    private DataSource dataSource;
+
+    @Inject
+    private EntityDtoMapper mapper;
+
+    @Inject
+    private BusinessRulesValidator businessRulesValidator;
+
+    @Inject
+    private ParallelRowValidator rowValidator;
+
+    @Inject
+    private CoordinateLockManager coordinateLockManager;
+
+    @Inject
+    private CarDeduplicator carDeduplicator;
+
+    @EJB
+    private CoordinateOccupancyFilter occupancyFilter;
+
+    @EJB
+    private MinIOService minIOService;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public ImportResultDto importHumanBeings(ImportRowReader rows, String transactionId) {
+        int chunkSize = Integer.parseInt(System.getProperty(CHUNK_SIZE_PROP, "1000"));
+        String loadId = transactionId != null ? transactionId : "bulk-" + System.nanoTime();
+        LOGGER.log(Level.INFO, "Starting bulk import (transaction: {0})", loadId);
+        long start = System.currentTimeMillis();
+
+        int totalProcessed = 0;
+        int failed = 0;
+
+        try (ImportErrorReport errors = ImportErrorReport.fromConfig(); Connection conn = dataSource.getConnection()) {
+            CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_BYTES + 4096);
+                List<HumanBeingDto> batch = new ArrayList<>(Math.min(chunkSize, 4096));
+                while (true) {
+                    batch.clear();
+                    while (batch.size() < chunkSize && rows.hasNext()) {
+                        batch.add(rows.next());
+                    }
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    int batchFirstRow = totalProcessed + 1;
+                    totalProcessed += batch.size();
+
+                    if (!rows.isPrevalidated()) {
+                        ValidationErrors[] rowErrors = rowValidator.validate(batch);
+                        for (int i = 0; i < rowErrors.length; i++) {
+                            if (rowErrors[i] != null) {
+                                errors.addRow(batchFirstRow + i, rowErrors[i]);
+                                failed++;
+                            }
+                        }
+                    }
+                    if (errors.shouldStop()) {
+                        LOGGER.log(Level.INFO, "Bulk import stopped after {0} errors at row {1}",
+                                   new Object[]{errors.count(), totalProcessed});
+                        break;
+                    }
+                    // nothing gets staged once a row failed; keep reading only to report every bad row
+                    if (failed > 0) {
+                        continue;
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        appendRow(buffer, loadId, batchFirstRow + i, toEntity(batch.get(i)));
+                        if (buffer.length() >= COPY_BUFFER_BYTES) {
+                            write(copy, buffer);
+                        }
+                    }
+                }
+                write(copy, buffer);
+            } finally {
+                if (copy.isActive()) {
+                    copy.endCopy();
+                }
+            }
+
+            if (totalProcessed == 0) {
+                return ImportResultDto.failure("No HumanBeings data provided", 0, 0, 0, errors.toList());
+            }
+            if (failed > 0) {
+                ImportResultDto result = errors.attachAfterCompletion(ImportResultDto.failure(
+                    errors.shouldStop() ? "Validation stopped after " + errors.count() + " errors - no objects imported"
+                                        : "Validation failed - no objects imported",
+                    totalProcessed, 0, failed, errors.toList()), minIOService, transactionRegistry);
+                sessionContext.setRollbackOnly();
+                return result;
+            }
+
+            // staged rows are private to this transaction; other writers are held off only from the
+            // checks to the commit. Coordinates first, then cars; whole namespaces, one lock each
+            coordinateLockManager.lockAllCoordinates();
+            carDeduplicator.lockAllCars();
+            int clashes = reportCoordinateClashes(conn, loadId, errors) + reportMissingCars(conn, loadId, errors);
+            if (clashes > 0) {
+                ImportResultDto result = errors.attachAfterCompletion(ImportResultDto.failure(
+                    "Validation failed - no objects imported", totalProcessed, 0, clashes, errors.toList()),
+                    minIOService, transactionRegistry);
+                sessionContext.setRollbackOnly();
+                return result;
+            }
+
+            int imported = insertStaged(conn, loadId);
+            try (PreparedStatement clear = conn.prepareStatement(CLEAR_STAGING_SQL)) {
+                clear.setString(1, loadId);
+                clear.executeUpdate();
+            }
+
+            LOGGER.log(Level.INFO, "Bulk import completed successfully: {0} objects imported in {1} ms",
+                       new Object[]{imported, System.currentTimeMillis() - start});
+            return ImportResultDto.success(totalProcessed, imported);
+
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Bulk import failed with exception - all changes rolled back", e);
+            sessionContext.setRollbackOnly();
+            return ImportResultDto.failure("Import failed - no objects imported: " + e.getMessage(),
+                                           totalProcessed, 0, totalProcessed, null);
+        }
+    }
+
+    private HumanBeing toEntity(HumanBeingDto dto) {
+        HumanBeing humanBeing = mapper.toEntity(dto);
+        if (humanBeing.getCreationDate() == null) {
+            humanBeing.setCreationDate(new java.util.Date());
+        }
+        businessRulesValidator.applyMachineGunDefault(humanBeing);
+        // written before commit, like the entity listener does; a row that ends up rolled back only costs a lookup
+        occupancyFilter.add(humanBeing.getCoordinates());
+        return humanBeing;
+    }
+
+    private int reportCoordinateClashes(Connection conn, String loadId, ImportErrorReport errors) throws SQLException {
+        int count = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(COORDINATE_CLASH_SQL)) {
+            stmt.setString(1, loadId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next() && !errors.shouldStop()) {
+                    int row = rs.getInt(1);
+                    int firstRow = rs.getInt(2);
+                    Integer x = rs.getInt(3);
+                    Double y = rs.getDouble(4);
+                    if (row > firstRow) {
+                        errors.add(row, ValidationErrorCode.COORDINATES_DUPLICATE, x, y, firstRow);
+                    } else {
+                        errors.add(row, ValidationErrorCode.COORDINATES_TAKEN, x, y);
+                    }
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int reportMissingCars(Connection conn, String loadId, ImportErrorReport errors) throws SQLException {
+        int count = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(MISSING_CAR_SQL)) {
+            stmt.setString(1, loadId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next() && !errors.shouldStop()) {
+                    errors.add(rs.getInt(1), ValidationErrorCode.CAR_NOT_FOUND, rs.getLong(2));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int insertStaged(Connection conn, String loadId) throws SQLException {
+        boolean deduplicate = carDeduplicator.isEnabled();
+        try (PreparedStatement stmt = conn.prepareStatement(deduplicate ? INSERT_DEDUPLICATED_SQL : INSERT_SQL)) {
+            stmt.setString(1, loadId);
+            if (deduplicate) {
+                stmt.setString(2, loadId);
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    private static void write(CopyIn copy, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /** One CSV line in {@link #COPY_SQL} column order; an empty unquoted field is NULL. */
+    private static void appendRow(StringBuilder out, String loadId, int rowNo, HumanBeing h) {
+        Car car = h.getCar();
+        appendText(out, loadId).append(',');
+        out.append(rowNo).append(',');
+        appendText(out, h.getName()).append(',');
+        out.append(h.getCoordinates().getX()).append(',');
+        out.append(h.getCoordinates().getY()).append(',');
+        // same wall-clock rendering as a JDBC Timestamp parameter
+        out.append(new Timestamp(h.getCreationDate().getTime())).append(',');
+        out.append(h.isRealHero()).append(',');
+        if (h.getHasToothpick() != null) {
+            out.append(h.getHasToothpick());
+        }
+        out.append(',');
+        if (car.getId() != null) {
+            out.append(car.getId());
+        }
+        out.append(',');
+        appendText(out, car.getName()).append(',');
+        out.append(car.isCool()).append(',');
+        out.append(h.getMood().name()).append(',');
+        out.append(h.getImpactSpeed()).append(',');
+        appendText(out, h.getSoundtrackName()).append(',');
+        out.append(h.getMinutesOfWaiting()).append(',');
+        out.append(h.getWeaponType().name()).append('\n');
+    }
+
+    private static StringBuilder appendText(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+}
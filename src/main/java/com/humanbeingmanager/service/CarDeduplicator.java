@@ -0,0 +1,235 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.dao.CarDao;
+import com.humanbeingmanager.entity.Car;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Opt-in car deduplication ({@code car.dedup.enabled}): a new car resolves to the existing row
+ * with the same (name, cool) instead of inserting another identical one.
+ * Resolved cars are remembered per transaction and, once committed, in a bounded intern cache.
+ */
+@ApplicationScoped
+public class CarDeduplicator {
+
+    private static final Logger LOGGER = Logger.getLogger(CarDeduplicator.class.getName());
+
+    private static final String ENABLED_PROP = "car.dedup.enabled";
+    private static final String CACHE_SIZE_PROP = "car.dedup.cacheSize";
+    private static final long KEY_SEED = 0x484d434152444450L;
+    private static final long NAMESPACE = KEY_SEED * 0x9e3779b97f4a7c15L;
+
+    private static final Object TX_SCOPE_KEY = new Object();
+
+    @EJB
+    private CarDao carDao;
+
+    @EJB
+    private AdvisoryCoordinateLockProvider advisoryLockProvider;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    // read once: final fields are safely published to every request thread
+    private final boolean enabled = Boolean.parseBoolean(System.getProperty(ENABLED_PROP, "false"));
+    // access-ordered, so every access is a write: guarded by itself
+    private final Map<CarKey, Long> internCache =
+        newInternCache(Integer.parseInt(System.getProperty(CACHE_SIZE_PROP, "10000")));
+
+    @PostConstruct
+    void init() {
+        LOGGER.info("Car deduplication enabled: " + enabled);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the managed car to reference for a car without an id: the existing row with the same
+     * (name, cool) or a freshly persisted one. Must run inside a transaction.
+     */
+    public Car resolve(Car requested) {
+        return resolve(requested, true);
+    }
+
+    /**
+     * {@link #resolve} without the natural-key lock, for imports too large to lock car by car.
+     * A car that another transaction creates at the same moment may end up stored twice.
+     */
+    public Car resolveUnlocked(Car requested) {
+        return resolve(requested, false);
+    }
+
+    private Car resolve(Car requested, boolean lock) {
+        if (!isEnabled()) {
+            return carDao.create(requested);
+        }
+        CarKey key = new CarKey(requested.getName(), requested.isCool());
+        Map<CarKey, Car> scope = transactionScope();
+
+        Car known = scope.get(key);
+        if (known != null) {
+            // a car persisted earlier in this transaction may still be waiting for its IDENTITY value
+            return known.getId() == null ? known : carDao.findById(known.getId()).orElse(known);
+        }
+
+        Optional<Car> cached = fromInternCache(key);
+        if (cached.isPresent()) {
+            scope.put(key, cached.get());
+            return cached.get();
+        }
+
+        if (lock) {
+            lock(new long[]{keyOf(key)});
+        }
+        Car car = carDao.findByNaturalKey(key.name, key.cool).orElseGet(() -> {
+            Car created = carDao.create(new Car(key.name, key.cool));
+            registerAfterCommit(key, created);
+            return created;
+        });
+        scope.put(key, car);
+        if (car.getId() != null) {
+            synchronized (internCache) {
+                internCache.put(key, car.getId());
+            }
+        }
+        return car;
+    }
+
+    /**
+     * Takes the natural-key locks of a whole import up front, in key order,
+     * so concurrent imports resolving the same cars cannot deadlock.
+     */
+    public void lockAll(Collection<Car> cars) {
+        if (!isEnabled()) {
+            return;
+        }
+        long[] keys = cars.stream()
+            .filter(Objects::nonNull)
+            .filter(c -> c.getId() == null)
+            .mapToLong(c -> keyOf(new CarKey(c.getName(), c.isCool())))
+            .sorted()
+            .distinct()
+            .toArray();
+        if (keys.length > 0) {
+            lock(keys);
+        }
+    }
+
+    /** Locks every natural key at once, for imports too large to lock car by car. */
+    public void lockAllCars() {
+        if (isEnabled()) {
+            advisoryLockProvider.lockNamespaceForTransaction(NAMESPACE);
+        }
+    }
+
+    private Optional<Car> fromInternCache(CarKey key) {
+        Long id;
+        synchronized (internCache) {
+            id = internCache.get(key);
+        }
+        if (id == null) {
+            return Optional.empty();
+        }
+        // the row may have been renamed while dedup was off, or the caching transaction rolled back
+        Optional<Car> car = carDao.findById(id)
+            .filter(c -> Objects.equals(c.getName(), key.name) && c.isCool() == key.cool);
+        if (!car.isPresent()) {
+            synchronized (internCache) {
+                internCache.remove(key, id);
+            }
+        }
+        return car;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<CarKey, Car> transactionScope() {
+        Map<CarKey, Car> scope = (Map<CarKey, Car>) transactionRegistry.getResource(TX_SCOPE_KEY);
+        if (scope == null) {
+            scope = new HashMap<>();
+            transactionRegistry.putResource(TX_SCOPE_KEY, scope);
+        }
+        return scope;
+    }
+
+    private void registerAfterCommit(CarKey key, Car created) {
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED && created.getId() != null) {
+                    synchronized (internCache) {
+                        internCache.put(key, created.getId());
+                    }
+                }
+            }
+        });
+    }
+
+    private void lock(long[] keys) {
+        advisoryLockProvider.lockForTransaction(NAMESPACE, keys);
+    }
+
+    private static Map<CarKey, Long> newInternCache(int maxSize) {
+        return new LinkedHashMap<CarKey, Long>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CarKey, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /** Advisory lock key of a natural key; seeded apart from the coordinate keys. */
+    private static long keyOf(CarKey key) {
+        long h = KEY_SEED ^ (key.cool ? 1L : 0L);
+        if (key.name != null) {
+            for (int i = 0; i < key.name.length(); i++) {
+                h = (h ^ key.name.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private static final class CarKey {
+
+        private final String name;
+        private final boolean cool;
+
+        private CarKey(String name, boolean cool) {
+            this.name = name;
+            this.cool = cool;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CarKey)) return false;
+            CarKey that = (CarKey) o;
+            return cool == that.cool && Objects.equals(name, that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(name) + (cool ? 1 : 0);
+        }
+    }
+}
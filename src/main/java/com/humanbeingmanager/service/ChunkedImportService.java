@@ -0,0 +1,195 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.dto.HumanBeingDto;
+import com.humanbeingmanager.dto.ImportChunkResultDto;
+import com.humanbeingmanager.dto.ImportResultDto;
+import com.humanbeingmanager.entity.ImportChunk;
+import com.humanbeingmanager.importer.ImportRowReader;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Chunked-commit import: the file is cut into chunks of a fixed row count and every chunk is
+ * validated and committed in its own transaction, up to {@code import.chunkedCommit.parallelism}
+ * chunks at a time. A failed chunk leaves the others committed; the committed ones are recorded as
+ * {@link ImportChunk} rows, so a later run over the same file skips them.
+ *
+ * Every chunk locks its own coordinate and car keys, in key order, so chunks sharing a key
+ * just run one after the other. Up to 2 x chunk size x parallelism advisory locks are held at once,
+ * and PostgreSQL's lock table has room for about {@code max_locks_per_transaction} x connections
+ * (6,400 by default), so the chunk size is capped by {@code import.chunkedCommit.maxChunkSize}
+ * (500: 4,000 locks at the default parallelism).
+ */
+@Stateless
+public class ChunkedImportService {
+
+    private static final Logger LOGGER = Logger.getLogger(ChunkedImportService.class.getName());
+
+    private static final String PARALLELISM_PROP = "import.chunkedCommit.parallelism";
+
+    @EJB
+    private ImportService importService;
+
+    @EJB
+    private MinIOService minIOService;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    /**
+     * Reads the rows and writes them chunk by chunk; returns once every chunk is done.
+     * @param alreadyCommitted chunk indexes committed by an earlier run; their rows are read but not written
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ImportResultDto importInChunks(ImportRowReader rows, Long importId, int chunkSize,
+                                          Set<Integer> alreadyCommitted) {
+        int parallelism = Integer.parseInt(System.getProperty(PARALLELISM_PROP, "4"));
+        LOGGER.log(Level.INFO, "Starting chunked import {0}: chunk size {1}, parallelism {2}, {3} chunks already committed",
+                   new Object[]{importId, chunkSize, parallelism, alreadyCommitted.size()});
+
+        // the permits bound both the writers and the chunks held in memory
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<Future<ImportChunkResultDto>> outcomes = new ArrayList<>();
+        List<HumanBeingDto> chunk = new ArrayList<>();
+        int totalRows = 0;
+        int chunkIndex = 0;
+        int chunkFirstRow = 1;
+        int chunkRows = 0;
+        String readError = null;
+
+        try {
+            while (rows.hasNext()) {
+                HumanBeingDto dto = rows.next();
+                totalRows++;
+                chunkRows++;
+                if (!alreadyCommitted.contains(chunkIndex)) {
+                    chunk.add(dto);
+                }
+                if (chunkRows == chunkSize) {
+                    outcomes.add(submit(importId, chunkIndex, chunkFirstRow, chunkRows, chunk, inFlight));
+                    chunk = new ArrayList<>();
+                    chunkIndex++;
+                    chunkFirstRow = totalRows + 1;
+                    chunkRows = 0;
+                }
+            }
+            if (chunkRows > 0) {
+                outcomes.add(submit(importId, chunkIndex, chunkFirstRow, chunkRows, chunk, inFlight));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            readError = "Import interrupted";
+        } catch (RuntimeException e) {
+            // malformed input: chunks before it are kept, like any other failed chunk
+            LOGGER.log(Level.WARNING, "Chunked import " + importId + " stopped reading at row " + (totalRows + 1), e);
+            readError = e.getMessage();
+        }
+
+        List<ImportChunkResultDto> chunks = new ArrayList<>(outcomes.size());
+        int imported = 0;
+        int failedRows = 0;
+        int failedChunks = 0;
+        ImportResultDto result;
+        // chunks report their first errors as messages; the report of the whole import is built from those
+        try (ImportErrorReport errors = ImportErrorReport.fromConfig()) {
+            for (Future<ImportChunkResultDto> outcome : outcomes) {
+                ImportChunkResultDto chunkResult = await(outcome);
+                chunks.add(chunkResult);
+                if (ImportChunkResultDto.COMMITTED.equals(chunkResult.getStatus())) {
+                    imported += chunkResult.getRowCount();
+                } else if (ImportChunkResultDto.FAILED.equals(chunkResult.getStatus())) {
+                    failedChunks++;
+                    failedRows += chunkResult.getRowCount();
+                    if (chunkResult.getErrors() != null) {
+                        chunkResult.getErrors().forEach(errors::add);
+                    } else {
+                        errors.add("Chunk " + chunkResult.getIndex() + ": " + chunkResult.getErrorMessage());
+                    }
+                }
+            }
+            if (readError != null) {
+                errors.add(readError);
+            }
+
+            if (failedChunks == 0 && readError == null) {
+                result = ImportResultDto.success(totalRows, imported);
+            } else {
+                String message = failedChunks + " of " + chunks.size() + " chunks failed" +
+                                 (readError != null ? ", file could not be read to the end" : "") +
+                                 "; committed chunks are kept and skipped when the import is resumed";
+                result = errors.attachTo(ImportResultDto.failure(message, totalRows, imported, failedRows, errors.toList()),
+                                         minIOService);
+            }
+        }
+        result.setImportId(importId);
+        result.setChunks(chunks);
+        LOGGER.log(Level.INFO, "Chunked import {0} finished: {1} rows imported, {2} chunks failed",
+                   new Object[]{importId, imported, failedChunks});
+        return result;
+    }
+
+    private Future<ImportChunkResultDto> submit(Long importId, int index, int firstRow, int rowCount,
+                                                List<HumanBeingDto> rows, Semaphore inFlight)
+            throws InterruptedException {
+        if (rows.isEmpty()) {
+            return CompletableFuture.completedFuture(new ImportChunkResultDto(
+                index, firstRow, rowCount, ImportChunkResultDto.SKIPPED, null, null));
+        }
+        ImportChunk chunk = new ImportChunk(importId, index, firstRow, rowCount);
+        inFlight.acquire();
+        try {
+            return executor.submit(() -> {
+                try {
+                    return writeChunk(rows, chunk);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            LOGGER.log(Level.WARNING, "Executor rejected chunk " + index + ", writing it on the calling thread", e);
+            return CompletableFuture.completedFuture(writeChunk(rows, chunk));
+        }
+    }
+
+    private ImportChunkResultDto writeChunk(List<HumanBeingDto> rows, ImportChunk chunk) {
+        try {
+            ImportResultDto result = importService.importChunk(rows, chunk);
+            if (result.isSuccess()) {
+                return new ImportChunkResultDto(chunk.getChunkIndex(), chunk.getFirstRow(), chunk.getRowCount(),
+                                                ImportChunkResultDto.COMMITTED, null, null);
+            }
+            return new ImportChunkResultDto(chunk.getChunkIndex(), chunk.getFirstRow(), chunk.getRowCount(),
+                                            ImportChunkResultDto.FAILED, result.getErrorMessage(), result.getErrors());
+        } catch (Exception e) {
+            // e.g. the commit itself failed, or a concurrent resume committed this chunk first
+            LOGGER.log(Level.WARNING, "Chunk " + chunk.getChunkIndex() + " of import " + chunk.getImportId() + " failed", e);
+            return new ImportChunkResultDto(chunk.getChunkIndex(), chunk.getFirstRow(), chunk.getRowCount(),
+                                            ImportChunkResultDto.FAILED, e.getMessage(), null);
+        }
+    }
+
+    private static ImportChunkResultDto await(Future<ImportChunkResultDto> outcome) {
+        try {
+            return outcome.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for import chunks", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Import chunk failed unexpectedly", e);
+        }
+    }
+}
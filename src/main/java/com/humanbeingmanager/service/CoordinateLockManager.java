@@ -1,16 +1,169 @@
 package com.humanbeingmanager.service;
 
-import java.util.concurrent.ConcurrentHashMap;
+import com.humanbeingmanager.entity.Coordinates;
+import jakarta.ejb.EJB;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
 
 @jakarta.enterprise.context.ApplicationScoped
 public class CoordinateLockManager {
-    
-    private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
-    
-    public ReentrantLock getLock(Integer x, double y) {
-        String key = x + "," + y;
-        return locks.computeIfAbsent(key, k -> new ReentrantLock(true)); 
+
+    private static final Logger LOGGER = Logger.getLogger(CoordinateLockManager.class.getName());
+
+    private static final String LOCK_PROVIDER_PROP = "coordinate.lock.provider";
+    private static final String DEFAULT_PROVIDER = "advisory";
+
+    private static final int STRIPES = 256;
+    private static final long KEY_SEED = 0x48424d434f4f5244L;
+
+    /** Advisory key that every coordinate key is taken under; see {@link #lockAllCoordinates()}. */
+    private static final long NAMESPACE = mix(KEY_SEED);
+
+    /** Single-node mode: the local stripes are the only serialization point. */
+    private static final CoordinateLockProvider LOCAL_ONLY = new CoordinateLockProvider() {
+        @Override
+        public void lockForTransaction(long namespace, long[] keys) {
+        }
+
+        @Override
+        public void lockNamespaceForTransaction(long namespace) {
+        }
+    };
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    @EJB
+    private AdvisoryCoordinateLockProvider advisoryLockProvider;
+
+    private volatile CoordinateLockProvider provider;
+
+    public CoordinateLockManager() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+    }
+
+    /**
+     * Locks one coordinate pair: the local stripe keeps same-node writers off the database,
+     * the provider lock stays held until the current transaction ends.
+     */
+    public CoordinateLock lock(Integer x, double y) {
+        long key = keyOf(x, y);
+        ReentrantLock stripe = stripes[stripeOf(key)];
+        stripe.lock();
+        try {
+            getProvider().lockForTransaction(NAMESPACE, new long[]{key});
+        } catch (RuntimeException e) {
+            stripe.unlock();
+            throw e;
+        }
+        return new CoordinateLock(new ReentrantLock[]{stripe});
+    }
+
+    /**
+     * {@link #lock(Integer, double)} for a batch of coordinate pairs: the local stripes in stripe order,
+     * then the provider locks in key order.
+     */
+    public CoordinateLock lock(Collection<Coordinates> coordinates) {
+        long[] keys = keysOf(coordinates);
+        int[] stripeIndexes = Arrays.stream(keys)
+            .mapToInt(CoordinateLockManager::stripeOf)
+            .sorted()
+            .distinct()
+            .toArray();
+        ReentrantLock[] held = new ReentrantLock[stripeIndexes.length];
+        int count = 0;
+        try {
+            for (int index : stripeIndexes) {
+                stripes[index].lock();
+                held[count++] = stripes[index];
+            }
+            if (keys.length > 0) {
+                getProvider().lockForTransaction(NAMESPACE, keys);
+            }
+        } catch (RuntimeException e) {
+            unlock(held, count);
+            throw e;
+        }
+        return new CoordinateLock(held);
+    }
+
+    /**
+     * Locks every coordinate pair of a bulk operation for the current transaction, in key order.
+     * Provider locks only: the caller holds no local stripe.
+     */
+    public void lockAll(Collection<Coordinates> coordinates) {
+        long[] keys = keysOf(coordinates);
+        if (keys.length > 0) {
+            getProvider().lockForTransaction(NAMESPACE, keys);
+        }
+    }
+
+    /**
+     * Excludes every other coordinate writer until the current transaction ends. Taken by large imports
+     * for their final check only, as they would otherwise need one database lock per row.
+     */
+    public void lockAllCoordinates() {
+        getProvider().lockNamespaceForTransaction(NAMESPACE);
+    }
+
+    /** 64-bit key of a coordinate pair, shared by every node. */
+    public static long keyOf(Integer x, double y) {
+        long h = mix(KEY_SEED ^ x);
+        // -0.0 and 0.0 are the same coordinate
+        return mix(h ^ Double.doubleToLongBits(y == 0.0 ? 0.0 : y));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long[] keysOf(Collection<Coordinates> coordinates) {
+        return coordinates.stream()
+            .filter(Objects::nonNull)
+            .filter(c -> c.getX() != null)
+            .mapToLong(c -> keyOf(c.getX(), c.getY()))
+            .sorted()
+            .distinct()
+            .toArray();
+    }
+
+    private static int stripeOf(long key) {
+        return (int) (key ^ (key >>> 32)) & (STRIPES - 1);
     }
-}
 
+    private CoordinateLockProvider getProvider() {
+        if (provider == null) {
+            String name = System.getProperty(LOCK_PROVIDER_PROP, DEFAULT_PROVIDER);
+            provider = "local".equalsIgnoreCase(name) ? LOCAL_ONLY : advisoryLockProvider;
+            LOGGER.info("Coordinate lock provider: " + name);
+        }
+        return provider;
+    }
+
+    private static void unlock(ReentrantLock[] held, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+    /** Releases the local stripes; the provider locks are released by the transaction. */
+    public static final class CoordinateLock implements AutoCloseable {
+
+        private final ReentrantLock[] stripes;
+
+        private CoordinateLock(ReentrantLock[] stripes) {
+            this.stripes = stripes;
+        }
+
+        @Override
+        public void close() {
+            unlock(stripes, stripes.length);
+        }
+    }
+}
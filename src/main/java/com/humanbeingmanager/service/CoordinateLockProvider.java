@@ -0,0 +1,21 @@
+package com.humanbeingmanager.service;
+
+/**
+ * Serializes writers that target the same coordinates across the whole cluster.
+ * Locks taken through a provider are held until the surrounding JTA transaction completes.
+ */
+public interface CoordinateLockProvider {
+
+    /**
+     * Blocks until every key is locked for the current transaction. Also takes the namespace
+     * in shared mode, so key holders and a whole-namespace holder exclude each other.
+     * @param keys coordinate keys, sorted ascending and without duplicates
+     */
+    void lockForTransaction(long namespace, long[] keys);
+
+    /**
+     * Blocks until the current transaction holds the namespace exclusively, i.e. no other
+     * transaction holds any key in it. One lock instead of one per key for very large writes.
+     */
+    void lockNamespaceForTransaction(long namespace);
+}
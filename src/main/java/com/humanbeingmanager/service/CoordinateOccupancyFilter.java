@@ -0,0 +1,205 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.entity.Coordinates;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * In-memory set of the coordinate keys stored in human_beings, so a uniqueness check for a pair that
+ * is definitely free skips the database. Keys are 64-bit hashes: a collision or a row that has since
+ * moved only sends the check to the database, never past it.
+ *
+ * Writers add their key while they still hold the coordinate lock, i.e. before their commit becomes
+ * visible. Only this node's writes are seen, so the filter is opt-in ({@code coordinate.filter.enabled})
+ * and meant for single-node deployments. Stale keys are dropped by the rebuild at the next startup.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CoordinateOccupancyFilter {
+
+    private static final Logger LOGGER = Logger.getLogger(CoordinateOccupancyFilter.class.getName());
+
+    private static final String ENABLED_PROP = "coordinate.filter.enabled";
+    private static final int FETCH_SIZE = 10000;
+
+    @Resource(lookup = "java:/PostgresDruidDS")
+    private DataSource dataSource;
+
+    private boolean enabled;
+    private volatile boolean ready;
+    private final LongHashSet keys = new LongHashSet(1 << 16);
+
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder passedToDatabase = new LongAdder();
+
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void init() {
+        enabled = Boolean.parseBoolean(System.getProperty(ENABLED_PROP, "false"));
+        LOGGER.info("Coordinate occupancy filter enabled: " + enabled);
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * @return false only if no stored row can have these coordinates; true means "ask the database"
+     */
+    public boolean mightContain(Integer x, double y) {
+        if (!ready || x == null) {
+            return true;
+        }
+        boolean maybe;
+        synchronized (keys) {
+            maybe = keys.contains(CoordinateLockManager.keyOf(x, y));
+        }
+        (maybe ? passedToDatabase : skipped).increment();
+        return maybe;
+    }
+
+    public boolean mightContain(Coordinates coordinates) {
+        return coordinates == null || mightContain(coordinates.getX(), coordinates.getY());
+    }
+
+    /** Records coordinates about to be written; called before the writing transaction commits. */
+    public void add(Coordinates coordinates) {
+        if (!enabled || coordinates == null || coordinates.getX() == null) {
+            return;
+        }
+        long key = CoordinateLockManager.keyOf(coordinates.getX(), coordinates.getY());
+        synchronized (keys) {
+            keys.add(key);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("ready", ready);
+        synchronized (keys) {
+            metrics.put("keys", keys.size());
+        }
+        metrics.put("skippedLookups", skipped.sum());
+        metrics.put("databaseLookups", passedToDatabase.sum());
+        return metrics;
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        // writes that arrive while loading go straight into the same set, so nothing is lost
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery("SELECT x, y FROM human_beings WHERE x IS NOT NULL")) {
+                    while (rs.next()) {
+                        long key = CoordinateLockManager.keyOf(rs.getInt(1), rs.getDouble(2));
+                        synchronized (keys) {
+                            keys.add(key);
+                        }
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+            ready = true;
+            LOGGER.log(Level.INFO, "Coordinate occupancy filter loaded {0} keys in {1} ms",
+                       new Object[]{keys.size(), System.currentTimeMillis() - start});
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to load coordinate occupancy filter, all checks go to the database", e);
+        }
+    }
+
+    /** Open-addressing set of longs; 0 is tracked separately because it marks empty slots. */
+    private static final class LongHashSet {
+
+        private long[] table;
+        private int size;
+        private boolean containsZero;
+
+        private LongHashSet(int capacity) {
+            table = new long[capacity];
+        }
+
+        boolean contains(long key) {
+            if (key == 0) {
+                return containsZero;
+            }
+            int mask = table.length - 1;
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                long slot = table[i];
+                if (slot == 0) {
+                    return false;
+                }
+                if (slot == key) {
+                    return true;
+                }
+            }
+        }
+
+        void add(long key) {
+            if (key == 0) {
+                if (!containsZero) {
+                    containsZero = true;
+                    size++;
+                }
+                return;
+            }
+            if ((size + 1) * 2 > table.length) {
+                grow();
+            }
+            if (insert(table, key)) {
+                size++;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] bigger = new long[table.length * 2];
+            for (long key : table) {
+                if (key != 0) {
+                    insert(bigger, key);
+                }
+            }
+            table = bigger;
+        }
+
+        private static boolean insert(long[] target, long key) {
+            int mask = target.length - 1;
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                long slot = target[i];
+                if (slot == 0) {
+                    target[i] = key;
+                    return true;
+                }
+                if (slot == key) {
+                    return false;
+                }
+            }
+        }
+
+        private static int index(long key, int mask) {
+            // keys are already well-mixed hashes
+            return (int) (key ^ (key >>> 32)) & mask;
+        }
+    }
+}
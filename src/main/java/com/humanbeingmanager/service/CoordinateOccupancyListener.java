@@ -0,0 +1,35 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.entity.HumanBeing;
+import jakarta.enterprise.inject.spi.CDI;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Feeds every written coordinate pair into the occupancy filter before the transaction commits,
+ * whichever path (create, update, patch, import) wrote it.
+ *
+ * Only this node's writes pass through here, so {@code coordinate.filter.enabled} must stay off when
+ * several nodes share the database, the default setup with the advisory lock provider: a pair written
+ * by another node would be missing from this node's filter and its uniqueness check skipped.
+ */
+public class CoordinateOccupancyListener {
+
+    // looked up once per listener instance instead of on every write; the reference is a container proxy
+    private volatile CoordinateOccupancyFilter filter;
+
+    @PrePersist
+    @PreUpdate
+    public void beforeWrite(HumanBeing humanBeing) {
+        filter().add(humanBeing.getCoordinates());
+    }
+
+    private CoordinateOccupancyFilter filter() {
+        CoordinateOccupancyFilter resolved = filter;
+        if (resolved == null) {
+            resolved = CDI.current().select(CoordinateOccupancyFilter.class).get();
+            filter = resolved;
+        }
+        return resolved;
+    }
+}
@@ -1,6 +1,10 @@
 package com.humanbeingmanager.service;
 
+import com.humanbeingmanager.dao.ImportOperationDao;
+import com.humanbeingmanager.dto.ImportResultDto;
 import com.humanbeingmanager.entity.ImportHistory;
+import com.humanbeingmanager.entity.ImportOperation;
+import com.humanbeingmanager.importer.ImportRowReader;
 import jakarta.ejb.EJB;
 import jakarta.ejb.Stateless;
 import jakarta.ejb.TransactionAttribute;
@@ -10,12 +14,29 @@ import jakarta.annotation.Resource;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.PersistenceContextType;
-import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
+/**
+ * Coordinator of the two-phase commit of file imports: the rows go to the database, the file to MinIO.
+ * The protocol state lives in the {@code import_operation} log, so a transaction begun on one node can
+ * be committed, rolled back or recovered by any other, and survives a restart. Each node caches the
+ * transactions it is running.
+ *
+ * The imported rows commit with their own transaction, and the commit decision is logged in it: a
+ * transaction past {@link Phase#COMMITTING} has its rows stored and only the file left to promote,
+ * one before it has nothing stored. {@link TransactionRecoveryService} finishes either kind when its
+ * coordinator is gone.
+ */
 @Stateless
 public class DistributedTransactionManager {
     
@@ -23,6 +44,15 @@ public class DistributedTransactionManager {
     
     @EJB
     private MinIOService minIOService;
+
+    @EJB
+    private ImportService importService;
+
+    @EJB
+    private BulkImportService bulkImportService;
+
+    @EJB
+    private ImportOperationDao transactionLog;
     
     @Resource
     private SessionContext sessionContext;
@@ -30,84 +60,149 @@ public class DistributedTransactionManager {
     @PersistenceContext(unitName = "HumanBeingPU", type = PersistenceContextType.TRANSACTION)
     private EntityManager em;
     
+    static final String NODE = System.getProperty("jboss.node.name", "standalone");
+
+    // the transactions this node runs; the log is the authority, this is a cache in front of it
     private static final ConcurrentHashMap<String, TransactionState> transactionStates = new ConcurrentHashMap<>();
-    private static final ReentrantLock lock = new ReentrantLock();
-    
+
+    private static final Set<String> FINISHED = Set.of(Phase.COMMITTED.name(), Phase.ROLLED_BACK.name());
+
+    /**
+     * Where a transaction is in the protocol. The two resource managers prepare independently (the
+     * upload runs in the background), so each combination of prepared votes is a phase of its own.
+     */
+    public enum Phase {
+        ACTIVE(false, false),
+        STORAGE_PREPARED(true, false),
+        DB_PREPARED(false, true),
+        PREPARED(true, true),
+        COMMITTING(true, true),
+        COMMITTED(true, true),
+        ROLLED_BACK(false, false);
+
+        private final boolean storagePrepared;
+        private final boolean dbPrepared;
+
+        Phase(boolean storagePrepared, boolean dbPrepared) {
+            this.storagePrepared = storagePrepared;
+            this.dbPrepared = dbPrepared;
+        }
+
+        boolean isVoting() {
+            return this == ACTIVE || this == STORAGE_PREPARED || this == DB_PREPARED || this == PREPARED;
+        }
+
+        Phase withStorage() {
+            return isVoting() ? (dbPrepared ? PREPARED : STORAGE_PREPARED) : null;
+        }
+
+        Phase withDb() {
+            return isVoting() ? (storagePrepared ? PREPARED : DB_PREPARED) : null;
+        }
+
+        Phase decided() {
+            return this == PREPARED || this == COMMITTING ? COMMITTING : null;
+        }
+
+        Phase aborted() {
+            return isVoting() ? ROLLED_BACK : null;
+        }
+    }
+
+    /** Cached view of a logged transaction; steps are taken in the log and only then cached here. */
     public static class TransactionState {
-        private String tempFileKey;
-        private boolean minIOPrepared = false;
-        private boolean dbPrepared = false;
-        private boolean committed = false;
         private final String transactionId;
-        
+        private final AtomicReference<Phase> phase;
+        private volatile String tempFileKey;
+
         public TransactionState(String transactionId) {
+            this(transactionId, Phase.ACTIVE, null);
+        }
+
+        private TransactionState(String transactionId, Phase phase, String tempFileKey) {
             this.transactionId = transactionId;
+            this.phase = new AtomicReference<>(phase);
+            this.tempFileKey = tempFileKey;
         }
-        
+
+        public Phase getPhase() {
+            return phase.get();
+        }
+
         public String getTempFileKey() {
             return tempFileKey;
         }
-        
-        public void setTempFileKey(String tempFileKey) {
-            this.tempFileKey = tempFileKey;
-        }
-        
+
         public boolean isMinIOPrepared() {
-            return minIOPrepared;
+            return phase.get().storagePrepared;
         }
-        
-        public void setMinIOPrepared(boolean minIOPrepared) {
-            this.minIOPrepared = minIOPrepared;
-        }
-        
+
         public boolean isDbPrepared() {
-            return dbPrepared;
+            return phase.get().dbPrepared;
         }
-        
-        public void setDbPrepared(boolean dbPrepared) {
-            this.dbPrepared = dbPrepared;
-        }
-        
+
         public boolean isCommitted() {
-            return committed;
-        }
-        
-        public void setCommitted(boolean committed) {
-            this.committed = committed;
+            return phase.get() == Phase.COMMITTED;
         }
-        
+
         public String getTransactionId() {
             return transactionId;
         }
+
+        // phases only move forward (the two single votes never follow each other), so racing threads
+        // can't put an older phase back over a newer one
+        private void cache(Phase logged, String loggedTempFileKey) {
+            if (loggedTempFileKey != null) {
+                tempFileKey = loggedTempFileKey;
+            }
+            phase.accumulateAndGet(logged, (cached, fresh) -> fresh.ordinal() > cached.ordinal() ? fresh : cached);
+        }
     }
     
-    // Phase 1: prepare minio - загружаем файл в минио с временым ключом
-    @TransactionAttribute(TransactionAttributeType.REQUIRED)
-    public String prepareMinIO(InputStream inputStream, String contentType, long size) {
+    // начало транзакции: состояние регистрируется до загрузки, чтобы загрузка могла идти параллельно с импортом
+    public String begin() {
         String transactionId = generateTransactionId();
-        lock.lock();
+        // cached first: recovery leaves alone what this node is running
+        TransactionState state = new TransactionState(transactionId);
+        transactionStates.put(transactionId, state);
         try {
-            LOGGER.info("2PC Coordinator [BEGIN] - Transaction started: " + transactionId);
-            
-            TransactionState state = new TransactionState(transactionId);
-            
-            try {
-                String tempKey = minIOService.uploadFileTemporary(inputStream, contentType, size);
-                state.setTempFileKey(tempKey);
-                state.setMinIOPrepared(true);
-                
-                transactionStates.put(transactionId, state);
-                
+            transactionLog.create(new ImportOperation(transactionId, Phase.ACTIVE.name(), NODE));
+        } catch (RuntimeException e) {
+            transactionStates.remove(transactionId, state);
+            throw e;
+        }
+        LOGGER.info("2PC Coordinator [BEGIN] - Transaction started: " + transactionId + " on node " + NODE);
+        return transactionId;
+    }
+
+    // Phase 1: prepare minio - загружаем файл в минио с временым ключом
+    // Runs on a background thread while the rows are imported; a rollback that wins the race leaves the file to us.
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void prepareMinIO(String transactionId, Path file, String contentType, String extension) {
+        String tempKey;
+        try {
+            tempKey = minIOService.uploadFileTemporary(file, contentType, extension);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "2PC Coordinator [PREPARE-FAIL] - MinIO RM: NOT READY for transaction: " + transactionId, e);
+            throw new RuntimeException("Failed to prepare MinIO transaction: " + e.getMessage(), e);
+        }
+
+        try {
+            TransactionState state = stateOf(transactionId);
+            if (state != null && transition(state, Phase::withStorage, tempKey) != null) {
                 LOGGER.info("2PC Coordinator [PREPARE-OK] - MinIO RM: READY for transaction: " + transactionId);
-                
-                return transactionId;
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "2PC Coordinator [PREPARE-FAIL] - MinIO RM: NOT READY for transaction: " + transactionId, e);
-                sessionContext.setRollbackOnly();
-                throw new RuntimeException("Failed to prepare MinIO transaction", e);
+                return;
             }
-        } finally {
-            lock.unlock();
+        } catch (RuntimeException e) {
+            // without a vote in the log the import can't commit, so the file has no owner
+            LOGGER.log(Level.SEVERE, "2PC Coordinator [PREPARE-FAIL] - Failed to log MinIO vote of " + transactionId, e);
+        }
+        // rolled back while the upload was running; nobody else knows this key
+        LOGGER.info("2PC Coordinator - Transaction " + transactionId + " ended during upload, discarding " + tempKey);
+        try {
+            minIOService.deleteFile(tempKey);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to delete temp file of ended transaction: " + tempKey, e);
         }
     }
     
@@ -134,102 +229,167 @@ public class DistributedTransactionManager {
 
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public boolean prepareDatabase(String transactionId) {
-        lock.lock();
-        try {
-            TransactionState state = transactionStates.get(transactionId);
-            if (state == null) {
-                throw new IllegalStateException("Transaction state not found: " + transactionId);
-            }
+        TransactionState state = stateOf(transactionId);
+        if (state == null) {
+            throw new IllegalStateException("Transaction state not found: " + transactionId);
+        }
 
-            boolean isReady = checkDatabaseReadiness(transactionId);
-            
-            if (isReady) {
-                state.setDbPrepared(true);
-                LOGGER.info("2PC Coordinator [PREPARE-OK] - Database RM: READY for transaction: " + transactionId);
-                return true;
-            } else {
-                LOGGER.severe("2PC Coordinator [PREPARE-FAIL] - Database RM: NOT READY for transaction: " + transactionId);
-                return false;
-            }
-        } finally {
-            lock.unlock();
+        boolean isReady = checkDatabaseReadiness(transactionId);
+        
+        if (!isReady) {
+            LOGGER.severe("2PC Coordinator [PREPARE-FAIL] - Database RM: NOT READY for transaction: " + transactionId);
+            return false;
+        }
+        if (transition(state, Phase::withDb, null) == null) {
+            throw new IllegalStateException("Transaction already ended: " + transactionId + " (" + state.getPhase() + ")");
+        }
+        LOGGER.info("2PC Coordinator [PREPARE-OK] - Database RM: READY for transaction: " + transactionId);
+        return true;
+    }
+    
+    //Phase 1: импорт строк в транзакции бд, после prepareDatabase
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public ImportResultDto executeImportInTransaction(String transactionId, ImportRowReader rows, Future<?> upload) {
+        TransactionState state = stateOf(transactionId);
+        if (state == null || !state.isDbPrepared()) {
+            throw new IllegalStateException("Transaction not prepared: " + transactionId);
         }
+        return awaitUpload(state, importService.importHumanBeings(rows, transactionId), upload);
+    }
+
+    //Phase 1: то же через COPY и staging-таблицу, для больших файлов
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public ImportResultDto executeBulkImportInTransaction(String transactionId, ImportRowReader rows, Future<?> upload) {
+        TransactionState state = stateOf(transactionId);
+        if (state == null || !state.isDbPrepared()) {
+            throw new IllegalStateException("Transaction not prepared: " + transactionId);
+        }
+        return awaitUpload(state, bulkImportService.importHumanBeings(rows, transactionId), upload);
+    }
+    
+    // строки импортированы, но транзакция бд коммитится только когда файл уже в минио;
+    // решение о коммите пишется в лог в той же транзакции, что и строки
+    private ImportResultDto awaitUpload(TransactionState state, ImportResultDto result, Future<?> upload) {
+        String transactionId = state.getTransactionId();
+        if (!result.isSuccess()) {
+            return result;
+        }
+        try {
+            upload.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sessionContext.setRollbackOnly();
+            return ImportResultDto.failure("Interrupted while waiting for the file upload", result.getTotalProcessed(),
+                                           0, 0, null);
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.SEVERE, "Phase 1 (Prepare) - MinIO upload failed, rolling back import: " + transactionId, e.getCause());
+            sessionContext.setRollbackOnly();
+            return ImportResultDto.failure("Failed to upload file to storage: " + e.getCause().getMessage(),
+                                           result.getTotalProcessed(), 0, 0, null);
+        }
+        if (!logDecision(state)) {
+            LOGGER.severe("2PC Coordinator [DECISION-FAIL] - Transaction " + transactionId + " is " + state.getPhase() +
+                          ", rolling back import");
+            sessionContext.setRollbackOnly();
+            return ImportResultDto.failure("Transaction was rolled back: " + transactionId, result.getTotalProcessed(),
+                                           0, 0, null);
+        }
+        return result;
+    }
+
+    // not cached: the step is only real once the caller's transaction commits
+    private boolean logDecision(TransactionState state) {
+        Phase current = state.getPhase() == Phase.PREPARED ? Phase.PREPARED : refresh(state);
+        return current == Phase.PREPARED &&
+               transactionLog.compareAndSetInCurrentTransaction(state.getTransactionId(), Phase.PREPARED.name(),
+                                                                Phase.COMMITTING.name());
     }
     
     //Phase 2 - commit both
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public String commit(String transactionId) {
-        lock.lock();
+        TransactionState state = stateOf(transactionId);
+        if (state == null) {
+            throw new IllegalStateException("Transaction state not found: " + transactionId);
+        }
+        
         try {
-            TransactionState state = transactionStates.get(transactionId);
-            if (state == null) {
-                throw new IllegalStateException("Transaction state not found: " + transactionId);
+            // usually logged with the rows already; chunked imports, whose chunks committed on their own, decide here
+            if (transition(state, Phase::decided, null) == null) {
+                throw new IllegalStateException("Transaction not fully prepared: " + transactionId + " (" + state.getPhase() + ")");
             }
+        } catch (RuntimeException e) {
+            transactionStates.remove(transactionId, state);
+            throw e;
+        }
+        
+        LOGGER.info("2PC Coordinator [DECISION: COMMIT] - All RMs prepared, committing transaction: " + transactionId);
+        
+        try {
+            String finalKey = minIOService.commitFile(state.getTempFileKey());
             
-            if (!state.isMinIOPrepared() || !state.isDbPrepared()) {
-                throw new IllegalStateException("Transaction not fully prepared: " + transactionId);
-            }
+            commitDatabase(transactionId);
             
-            LOGGER.info("2PC Coordinator [DECISION: COMMIT] - All RMs prepared, committing transaction: " + transactionId);
+            transition(state, phase -> phase == Phase.COMMITTING ? Phase.COMMITTED : null, null);
             
-            try {
-                String finalKey = minIOService.commitFile(state.getTempFileKey());
-                
-                commitDatabase(transactionId);
-                
-                state.setCommitted(true);
-                
-                LOGGER.info("2PC Coordinator [COMMIT-COMPLETE] - Transaction committed: " + transactionId + ", Final key: " + finalKey);
-                
-                transactionStates.remove(transactionId);
-                
-                return finalKey;
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "2PC Coordinator [COMMIT-FAIL] - Commit failed, rolling back transaction: " + transactionId, e);
-                rollbackMinIO(transactionId);
-                rollbackDatabase(transactionId);
-                throw new RuntimeException("Failed to commit transaction", e);
-            }
+            LOGGER.info("2PC Coordinator [COMMIT-COMPLETE] - Transaction committed: " + transactionId + ", Final key: " + finalKey);
+            
+            return finalKey;
+        } catch (Exception e) {
+            // past the decision there is no way back: recovery promotes the file later
+            LOGGER.log(Level.SEVERE, "2PC Coordinator [COMMIT-FAIL] - Commit of transaction " + transactionId +
+                                     " left to recovery", e);
+            throw new RuntimeException("Failed to commit transaction", e);
         } finally {
-            lock.unlock();
+            transactionStates.remove(transactionId, state);
         }
     }
     
     //откатить оба
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public void rollback(String transactionId) {
-        lock.lock();
-        try {
-            TransactionState state = transactionStates.get(transactionId);
-            if (state == null) {
-                LOGGER.warning("Transaction state not found for rollback: " + transactionId);
-                return;
-            }
-            
-            LOGGER.info("2PC Coordinator [DECISION: ROLLBACK] - Rolling back transaction: " + transactionId);
-            
-            rollbackMinIO(transactionId);
-            
-            sessionContext.setRollbackOnly();
-            
-            transactionStates.remove(transactionId);
-            
-            LOGGER.info("2PC Coordinator [ROLLBACK-COMPLETE] - Transaction rolled back: " + transactionId);
-        } finally {
-            lock.unlock();
+        TransactionState state = stateOf(transactionId);
+        if (state == null) {
+            LOGGER.warning("Transaction state not found for rollback: " + transactionId);
+            return;
         }
+        
+        LOGGER.info("2PC Coordinator [DECISION: ROLLBACK] - Rolling back transaction: " + transactionId);
+        
+        rollbackMinIO(state);
+        
+        sessionContext.setRollbackOnly();
+        
+        LOGGER.info("2PC Coordinator [ROLLBACK-COMPLETE] - Transaction rolled back: " + transactionId);
     }
     
-    //откат минио
-    private void rollbackMinIO(String transactionId) {
-        TransactionState state = transactionStates.get(transactionId);
-        if (state != null && state.getTempFileKey() != null) {
-            try {
-                minIOService.deleteFile(state.getTempFileKey());
-                LOGGER.info("MinIO rollback: Deleted temp file: " + state.getTempFileKey());
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, "Failed to delete temp file during rollback: " + state.getTempFileKey(), e);
-            }
+    //откат минио: только тот, кто перевёл транзакцию в ROLLED_BACK, удаляет файл
+    private void rollbackMinIO(TransactionState state) {
+        Phase abortedFrom;
+        try {
+            abortedFrom = transition(state, Phase::aborted, null);
+        } catch (RuntimeException e) {
+            // the log is out of reach, e.g. with the database down: drop the file now, recovery closes the entry
+            LOGGER.log(Level.WARNING, "Failed to log rollback of " + state.getTransactionId() + ", left to recovery", e);
+            abortedFrom = state.getPhase().isVoting() ? state.getPhase() : null;
+        }
+        transactionStates.remove(state.getTransactionId(), state);
+        if (abortedFrom == null) {
+            LOGGER.warning("Transaction " + state.getTransactionId() + " is already " + state.getPhase() + ", not rolled back");
+            return;
+        }
+        // without a storage vote the upload is still running and discards its own file
+        if (abortedFrom.storagePrepared) {
+            deleteTempFile(state);
+        }
+    }
+
+    private void deleteTempFile(TransactionState state) {
+        try {
+            minIOService.deleteFile(state.getTempFileKey());
+            LOGGER.info("MinIO rollback: Deleted temp file: " + state.getTempFileKey());
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to delete temp file during rollback: " + state.getTempFileKey(), e);
         }
     }
     
@@ -238,8 +398,10 @@ public class DistributedTransactionManager {
     public void handleMinIOFailure(String transactionId) {
         LOGGER.severe("MinIO failure detected for transaction: " + transactionId);
         sessionContext.setRollbackOnly();
-        rollbackMinIO(transactionId);
-        transactionStates.remove(transactionId);
+        TransactionState state = stateOf(transactionId);
+        if (state != null) {
+            rollbackMinIO(state);
+        }
     }
     
     //коммит бд
@@ -262,24 +424,118 @@ public class DistributedTransactionManager {
     //откат если отвалилась бд
     public void handleDatabaseFailure(String transactionId) {
         LOGGER.severe("Database failure detected for transaction: " + transactionId);
-        rollbackMinIO(transactionId);
+        TransactionState state = stateOf(transactionId);
+        if (state != null) {
+            rollbackMinIO(state);
+        }
         rollbackDatabase(transactionId);
-        transactionStates.remove(transactionId);
     }
 
-    private String generateTransactionId() {
-        return "txn_" + System.currentTimeMillis() + "_" + Thread.currentThread().getId() + "_" + 
-               java.util.UUID.randomUUID().toString().substring(0, 8);
+    /**
+     * Finishes a transaction whose coordinator is gone. One past the commit decision has its rows
+     * stored, so its file is promoted; one before it lost its rows with the coordinator's database
+     * transaction, so its file is deleted. Transactions running on this node are left alone.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void recover(String transactionId) {
+        if (transactionStates.containsKey(transactionId)) {
+            return;
+        }
+        TransactionState state = stateOf(transactionId);
+        if (state == null) {
+            return;
+        }
+        Phase phase = state.getPhase();
+        if (phase == Phase.COMMITTING) {
+            String tempKey = state.getTempFileKey();
+            try {
+                // a missing temp file was promoted before the coordinator went away
+                String finalKey = minIOService.fileExists(tempKey) ? minIOService.commitFile(tempKey) : null;
+                transition(state, current -> current == Phase.COMMITTING ? Phase.COMMITTED : null, null);
+                LOGGER.info("2PC Recovery - Transaction " + transactionId + " rolled forward" +
+                            (finalKey != null ? ", final key: " + finalKey : ""));
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "2PC Recovery - Failed to promote the file of " + transactionId + ", will retry", e);
+            }
+        } else if (phase.isVoting()) {
+            rollbackMinIO(state);
+            LOGGER.info("2PC Recovery - Transaction " + transactionId + " rolled back from " + phase);
+        }
     }
-    
 
-    public TransactionState getTransactionState(String transactionId) {
-        return transactionStates.get(transactionId);
+    /** Keeps the transactions of this node from looking abandoned to the recovery of other nodes. */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void heartbeat() {
+        if (!transactionStates.isEmpty()) {
+            transactionLog.touch(List.copyOf(transactionStates.keySet()));
+        }
     }
-}
 
+    /** Unfinished transactions to recover: those not heard of since {@code before}, and those of this node. */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public List<String> findAbandoned(Date before) {
+        return transactionLog.findUnfinished(FINISHED, before, NODE);
+    }
 
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public int purgeFinished(Date before) {
+        return transactionLog.deleteFinished(FINISHED, before);
+    }
 
+    /**
+     * Takes one step of the state machine in the log, which arbitrates between threads and nodes: the
+     * update only applies if the logged phase is still the one the step was computed from. A refused
+     * step is retried once against the logged phase, as the cache may be behind.
+     * @param step the next phase for the current one, {@code null} where the step doesn't apply
+     * @return the phase the transaction left, or {@code null} if the step didn't apply
+     */
+    private Phase transition(TransactionState state, UnaryOperator<Phase> step, String tempFileKey) {
+        Phase current = state.getPhase();
+        boolean fresh = false;
+        while (true) {
+            Phase next = current != null ? step.apply(current) : null;
+            if (next != null &&
+                transactionLog.compareAndSet(state.getTransactionId(), current.name(), next.name(), tempFileKey)) {
+                state.cache(next, tempFileKey);
+                return current;
+            }
+            if (next == null && fresh) {
+                return null;
+            }
+            current = refresh(state);
+            fresh = true;
+        }
+    }
+
+    /** @return the logged phase, {@code null} if the transaction is not in the log */
+    private Phase refresh(TransactionState state) {
+        ImportOperation logged = transactionLog.findByTransactionId(state.getTransactionId()).orElse(null);
+        if (logged == null) {
+            return null;
+        }
+        Phase phase = Phase.valueOf(logged.getStatus());
+        state.cache(phase, logged.getTempFileKey());
+        return phase;
+    }
 
+    // кэш для своих транзакций, лог - для начатых на других узлах
+    private TransactionState stateOf(String transactionId) {
+        TransactionState state = transactionStates.get(transactionId);
+        if (state != null) {
+            return state;
+        }
+        return transactionLog.findByTransactionId(transactionId)
+            .map(logged -> new TransactionState(transactionId, Phase.valueOf(logged.getStatus()), logged.getTempFileKey()))
+            .orElse(null);
+    }
 
+    private String generateTransactionId() {
+        return "txn_" + System.currentTimeMillis() + "_" + Thread.currentThread().getId() + "_" + 
+               java.util.UUID.randomUUID().toString().substring(0, 8);
+    }
+    
 
+    public TransactionState getTransactionState(String transactionId) {
+        return stateOf(transactionId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.dao.ImportHistoryDao;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deletes import error reports older than {@code import.errors.retentionDays} from MinIO, once a day,
+ * and unlinks them from the import history.
+ */
+@Singleton
+public class ErrorReportRetentionService {
+
+    private static final Logger LOGGER = Logger.getLogger(ErrorReportRetentionService.class.getName());
+
+    private static final String RETENTION_DAYS_PROP = "import.errors.retentionDays";
+
+    @EJB
+    private MinIOService minIOService;
+
+    @EJB
+    private ImportHistoryDao importHistoryDao;
+
+    @Schedule(hour = "3", minute = "30", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void purgeExpiredReports() {
+        long retentionMillis = Long.parseLong(System.getProperty(RETENTION_DAYS_PROP, "30")) * 24 * 60 * 60 * 1000;
+        Date before = new Date(System.currentTimeMillis() - retentionMillis);
+        try {
+            int unlinked = importHistoryDao.clearErrorReportIds(before);
+            int deleted = minIOService.purgeErrorReports(before.toInstant());
+            LOGGER.log(Level.INFO, "Error report retention - Deleted {0} reports, unlinked {1} history entries",
+                       new Object[]{deleted, unlinked});
+        } catch (Exception e) {
+            // e.g. MinIO is down; the next run catches up
+            LOGGER.log(Level.WARNING, "Error report retention failed", e);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.entity.HumanBeing;
+import com.humanbeingmanager.exception.ValidationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Opt-in group commit for single-entity creates: concurrent callers are queued and a dedicated
+ * writer thread drains them into one transaction per batch, so a burst of POSTs shares one commit.
+ * Disabled by default ({@code humanbeing.groupCommit.enabled}).
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class GroupCommitWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(GroupCommitWriter.class.getName());
+
+    private static final String ENABLED_PROP = "humanbeing.groupCommit.enabled";
+    private static final String MAX_BATCH_SIZE_PROP = "humanbeing.groupCommit.maxBatchSize";
+    private static final String MAX_WAIT_MICROS_PROP = "humanbeing.groupCommit.maxWaitMicros";
+    private static final String QUEUE_CAPACITY_PROP = "humanbeing.groupCommit.queueCapacity";
+    private static final String CALLER_TIMEOUT_MS_PROP = "humanbeing.groupCommit.callerTimeoutMs";
+
+    private static final long IDLE_POLL_MS = 500;
+
+    @EJB
+    private HumanBeingService humanBeingService;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private boolean enabled;
+    private int maxBatchSize;
+    private long maxWaitNanos;
+    private long callerTimeoutMs;
+    private BlockingQueue<PendingCreate> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder entities = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder fallbackBatches = new LongAdder();
+    private final LongAdder queueFullBypasses = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final AtomicLong maxBatch = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        enabled = Boolean.parseBoolean(System.getProperty(ENABLED_PROP, "false"));
+        maxBatchSize = Integer.parseInt(System.getProperty(MAX_BATCH_SIZE_PROP, "64"));
+        maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(System.getProperty(MAX_WAIT_MICROS_PROP, "2000")));
+        callerTimeoutMs = Long.parseLong(System.getProperty(CALLER_TIMEOUT_MS_PROP, "30000"));
+        queue = new LinkedBlockingQueue<>(Integer.parseInt(System.getProperty(QUEUE_CAPACITY_PROP, "4096")));
+
+        LOGGER.info("Group commit enabled: " + enabled);
+        if (enabled) {
+            running = true;
+            writerThread = threadFactory.newThread(this::drainLoop);
+            writerThread.setName("humanbeing-group-commit");
+            writerThread.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        PendingCreate pending;
+        while (queue != null && (pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new IllegalStateException("Group commit writer is shutting down"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the entity and waits for the batch that carries it to commit.
+     * Falls back to a direct create when the queue is full. An entity still queued after
+     * {@code humanbeing.groupCommit.callerTimeoutMs} is withdrawn and fails; one already taken into a
+     * batch is waited for, as only that batch decides whether it commits.
+     */
+    public HumanBeing create(HumanBeing humanBeing) throws ValidationException {
+        PendingCreate pending = new PendingCreate(humanBeing);
+        if (!running || !queue.offer(pending)) {
+            queueFullBypasses.increment();
+            return humanBeingService.createHumanBeing(humanBeing);
+        }
+        try {
+            pending.result.get(callerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new RuntimeException("Timed out waiting for group commit after " + callerTimeoutMs + "ms", e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (queue.remove(pending)) {
+                throw new RuntimeException("Interrupted while waiting for group commit", e);
+            }
+        } catch (ExecutionException e) {
+            // unwrapped below
+        }
+        return outcome(pending);
+    }
+
+    public Map<String, Object> getMetrics() {
+        long batchCount = batches.sum();
+        long entityCount = entities.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("maxBatchSize", maxBatchSize);
+        metrics.put("maxWaitMicros", TimeUnit.NANOSECONDS.toMicros(maxWaitNanos));
+        metrics.put("queueDepth", queue != null ? queue.size() : 0);
+        metrics.put("batches", batchCount);
+        metrics.put("entities", entityCount);
+        metrics.put("rejected", rejected.sum());
+        metrics.put("fallbackBatches", fallbackBatches.sum());
+        metrics.put("queueFullBypasses", queueFullBypasses.sum());
+        metrics.put("avgBatchSize", batchCount > 0 ? (double) entityCount / batchCount : 0.0);
+        metrics.put("maxBatchSizeSeen", maxBatch.get());
+        metrics.put("avgCommitMs", batchCount > 0 ? commitNanos.sum() / 1e6 / batchCount : 0.0);
+        metrics.put("maxCommitMs", maxCommitNanos.get() / 1e6);
+        metrics.put("avgQueueWaitMs", entityCount > 0 ? queueWaitNanos.sum() / 1e6 / entityCount : 0.0);
+        return metrics;
+    }
+
+    private void drainLoop() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingCreate first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingCreate next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Group commit writer failed", e);
+                for (PendingCreate pending : batch) {
+                    pending.result.completeExceptionally(e);
+                }
+            } finally {
+                // callers wait for every entity taken off the queue; none may be left without an outcome
+                for (PendingCreate pending : batch) {
+                    pending.result.completeExceptionally(new IllegalStateException("Group commit writer stopped"));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingCreate> batch) {
+        long start = System.nanoTime();
+        for (PendingCreate pending : batch) {
+            queueWaitNanos.add(start - pending.enqueuedAt);
+        }
+
+        List<HumanBeing> humanBeings = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch) {
+            humanBeings.add(pending.humanBeing);
+        }
+
+        List<ValidationException> results;
+        try {
+            results = humanBeingService.createHumanBeings(humanBeings);
+        } catch (RuntimeException e) {
+            // the shared transaction rolled back; retry each entity on its own so one bad row cannot fail the others
+            LOGGER.log(Level.WARNING, "Group commit of " + batch.size() + " entities failed, retrying individually", e);
+            fallbackBatches.increment();
+            for (PendingCreate pending : batch) {
+                pending.resetForRetry();
+                try {
+                    pending.result.complete(humanBeingService.createHumanBeing(pending.humanBeing));
+                } catch (ValidationException | RuntimeException individual) {
+                    rejected.increment();
+                    pending.result.completeExceptionally(individual);
+                }
+            }
+            recordBatch(batch.size(), System.nanoTime() - start);
+            return;
+        }
+
+        recordBatch(batch.size(), System.nanoTime() - start);
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCreate pending = batch.get(i);
+            ValidationException error = results.get(i);
+            if (error != null) {
+                rejected.increment();
+                pending.result.completeExceptionally(error);
+            } else {
+                pending.result.complete(pending.humanBeing);
+            }
+        }
+    }
+
+    private static HumanBeing outcome(PendingCreate pending) throws ValidationException {
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ValidationException) {
+                throw (ValidationException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Failed to create HumanBeing: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void recordBatch(int size, long elapsedNanos) {
+        batches.increment();
+        entities.add(size);
+        commitNanos.add(elapsedNanos);
+        maxBatch.accumulateAndGet(size, Math::max);
+        maxCommitNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    private static final class PendingCreate {
+
+        private final HumanBeing humanBeing;
+        private final boolean newCar;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<HumanBeing> result = new CompletableFuture<>();
+
+        private PendingCreate(HumanBeing humanBeing) {
+            this.humanBeing = humanBeing;
+            this.newCar = humanBeing.getCar() != null && humanBeing.getCar().getId() == null;
+        }
+
+        /** Drops ids and versions the rolled-back batch may have assigned. */
+        private void resetForRetry() {
+            humanBeing.setId(null);
+            humanBeing.setVersion(null);
+            if (newCar && humanBeing.getCar() != null) {
+                humanBeing.getCar().setId(null);
+                humanBeing.getCar().setVersion(null);
+            }
+        }
+    }
+}
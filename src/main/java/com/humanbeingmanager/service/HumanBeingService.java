@@ -10,10 +10,15 @@ import com.humanbeingmanager.entity.WeaponType;
 import com.humanbeingmanager.dto.CarDto;
 import com.humanbeingmanager.dto.CoordinatesDto;
 import com.humanbeingmanager.mapper.EntityDtoMapper;
+import com.humanbeingmanager.mapper.MergePatchApplier;
 import com.humanbeingmanager.validator.BusinessRulesValidator;
+import com.humanbeingmanager.validator.ValidationErrorCode;
+import com.humanbeingmanager.validator.ValidationErrors;
 import com.humanbeingmanager.config.CacheStatisticsLogging;
 import com.humanbeingmanager.exception.ValidationException;
 import com.humanbeingmanager.exception.EntityNotFoundException;
+import com.humanbeingmanager.exception.PreconditionFailedException;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.ejb.Stateless;
 import jakarta.ejb.TransactionAttribute;
 import jakarta.ejb.TransactionAttributeType;
@@ -24,12 +29,16 @@ import jakarta.inject.Inject;
 import jakarta.interceptor.Interceptors;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 @Stateless
 @CacheStatisticsLogging
@@ -57,6 +66,12 @@ public class HumanBeingService {
     @Inject
     private CoordinateLockManager coordinateLockManager;
 
+    @Inject
+    private MergePatchApplier mergePatchApplier;
+
+    @Inject
+    private CarDeduplicator carDeduplicator;
+
     @Resource
     private SessionContext sessionContext;
 
@@ -71,24 +86,18 @@ public class HumanBeingService {
         }
         businessRulesValidator.applyMachineGunDefault(humanBeing);
         validateHumanBeing(humanBeing);
-        validateBusinessRules(humanBeing, false, null);
+        validateBusinessRules(humanBeing, null);
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public HumanBeing createHumanBeing(HumanBeing humanBeing) throws ValidationException {
         LOGGER.log(Level.INFO, "Creating new HumanBeing: {0}", humanBeing.getName());
         
-        ReentrantLock coordinateLock = null;
         if (humanBeing.getCoordinates() != null && humanBeing.getCoordinates().getX() != null) {
-            coordinateLock = coordinateLockManager.getLock(
-                humanBeing.getCoordinates().getX(), 
-                humanBeing.getCoordinates().getY()
-            );
-            coordinateLock.lock();
-            try {
+            try (CoordinateLockManager.CoordinateLock coordinateLock = coordinateLockManager.lock(
+                    humanBeing.getCoordinates().getX(),
+                    humanBeing.getCoordinates().getY())) {
                 return createHumanBeingInternal(humanBeing);
-            } finally {
-                coordinateLock.unlock();
             }
         } else {
             return createHumanBeingInternal(humanBeing);
@@ -104,10 +113,10 @@ public class HumanBeingService {
             businessRulesValidator.applyMachineGunDefault(humanBeing);
             
             validateHumanBeing(humanBeing);
-            validateBusinessRules(humanBeing, false, null);
+            validateBusinessRules(humanBeing, null);
             
             if (humanBeing.getCar() != null && humanBeing.getCar().getId() == null) {
-                Car savedCar = carDao.create(humanBeing.getCar());
+                Car savedCar = carDeduplicator.resolve(humanBeing.getCar());
                 humanBeing.setCar(savedCar);
             }
 
@@ -125,22 +134,82 @@ public class HumanBeingService {
         }
     }
 
+    /**
+     * Creates a batch of independent entities in the caller's transaction. A validation failure
+     * only rejects its own entity: the slot holds the exception and the rest of the batch is written.
+     * @return one slot per input, {@code null} for a created entity (its id is set in place)
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public List<ValidationException> createHumanBeings(List<HumanBeing> humanBeings) {
+        LOGGER.log(Level.FINE, "Creating batch of {0} HumanBeings", humanBeings.size());
+
+        // the same stripes and keys as single creates, so a batch serializes with them in local mode too
+        try (CoordinateLockManager.CoordinateLock coordinateLock = coordinateLockManager.lock(humanBeings.stream()
+                .map(HumanBeing::getCoordinates)
+                .collect(Collectors.toList()))) {
+            carDeduplicator.lockAll(humanBeings.stream()
+                .map(HumanBeing::getCar)
+                .collect(Collectors.toList()));
+
+            List<ValidationException> results = new ArrayList<>(humanBeings.size());
+            Set<Coordinates> taken = new HashSet<>();
+            for (HumanBeing humanBeing : humanBeings) {
+                try {
+                    if (humanBeing.getCreationDate() == null) {
+                        humanBeing.setCreationDate(new java.util.Date());
+                    }
+                    businessRulesValidator.applyMachineGunDefault(humanBeing);
+                    validateHumanBeing(humanBeing);
+                    // earlier entities of this batch are not flushed yet, so the DB check cannot see them
+                    if (taken.contains(humanBeing.getCoordinates())) {
+                        ValidationErrors duplicate = new ValidationErrors();
+                        duplicate.add(ValidationErrorCode.COORDINATES_TAKEN,
+                            humanBeing.getCoordinates().getX(), humanBeing.getCoordinates().getY());
+                        duplicate.throwIfAny();
+                    }
+                    validateBusinessRules(humanBeing, null);
+                } catch (ValidationException e) {
+                    results.add(e);
+                    continue;
+                }
+
+                // only a row that is written claims its coordinates
+                taken.add(humanBeing.getCoordinates());
+                if (humanBeing.getCar() != null && humanBeing.getCar().getId() == null) {
+                    humanBeing.setCar(carDeduplicator.resolve(humanBeing.getCar()));
+                }
+                humanBeingDao.create(humanBeing);
+                results.add(null);
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Loads the row once, validates the incoming state against it and copies only the
+     * changed fields onto the managed entity, so the flush writes a single narrow UPDATE.
+     * @param expectedVersion version the client last saw (If-Match), {@code null} to skip the check
+     * @throws PreconditionFailedException if the stored version differs from {@code expectedVersion}
+     */
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
-    public HumanBeing updateHumanBeing(HumanBeing humanBeing) throws ValidationException, EntityNotFoundException {
+    public HumanBeing updateHumanBeing(HumanBeing humanBeing, Long expectedVersion)
+            throws ValidationException, EntityNotFoundException, PreconditionFailedException {
         LOGGER.log(Level.INFO, "Updating HumanBeing with ID: {0}", humanBeing.getId());
         
         try {
-            if (humanBeing.getId() == null || !humanBeingDao.existsById(humanBeing.getId())) {
-                sessionContext.setRollbackOnly();
+            Optional<HumanBeing> existingOpt = humanBeing.getId() != null
+                ? humanBeingDao.findById(humanBeing.getId())
+                : Optional.empty();
+            if (existingOpt.isEmpty()) {
                 throw new EntityNotFoundException("HumanBeing with ID " + humanBeing.getId() + " not found");
             }
-            
-            HumanBeing existing = humanBeingDao.findById(humanBeing.getId()).orElseThrow(
-                () -> {
-                    sessionContext.setRollbackOnly();
-                    return new EntityNotFoundException("HumanBeing with ID " + humanBeing.getId() + " not found");
-                }
-            );
+            HumanBeing existing = existingOpt.get();
+
+            if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+                throw new PreconditionFailedException("HumanBeing with ID " + existing.getId() +
+                    " has version " + existing.getVersion() + ", expected " + expectedVersion);
+            }
+
             if (humanBeing.getCreationDate() == null) {
                 humanBeing.setCreationDate(existing.getCreationDate());
             }
@@ -148,22 +217,20 @@ public class HumanBeingService {
             businessRulesValidator.applyMachineGunDefault(humanBeing);
             
             validateHumanBeing(humanBeing);
-            validateBusinessRules(humanBeing, true, humanBeing.getId());
-
-            if (humanBeing.getCar() != null) {
-                if (humanBeing.getCar().getId() == null) {
-                    Car savedCar = carDao.create(humanBeing.getCar());
-                    humanBeing.setCar(savedCar);
-                } else {
-                    carDao.update(humanBeing.getCar());
-                }
+            validateBusinessRules(humanBeing, existing);
+
+            if (applyCarChanges(existing, humanBeing.getCar())) {
+                // the ETag is this row's version: a car edited in place must change it too
+                humanBeingDao.forceVersionIncrement(existing);
             }
+            applyChanges(existing, humanBeing);
+            // surfaces a concurrent write as OptimisticLockException here and bumps the version for the ETag
+            humanBeingDao.flush();
+
+            LOGGER.log(Level.INFO, "Successfully updated HumanBeing with ID: {0}", existing.getId());
             
-            HumanBeing updated = humanBeingDao.update(humanBeing);
-            LOGGER.log(Level.INFO, "Successfully updated HumanBeing with ID: {0}", updated.getId());
-            
-            return updated;
-        } catch (ValidationException | EntityNotFoundException e) {
+            return existing;
+        } catch (ValidationException | EntityNotFoundException | PreconditionFailedException e) {
             sessionContext.setRollbackOnly();
             throw e;
         } catch (Exception e) {
@@ -172,6 +239,68 @@ public class HumanBeingService {
         }
     }
 
+    /**
+     * Applies a JSON Merge Patch to the loaded row and re-runs only the rules the patched fields touch;
+     * the coordinate uniqueness query runs only when the coordinates actually changed.
+     * @param expectedVersion version the client last saw (If-Match), {@code null} to skip the check
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public HumanBeing patchHumanBeing(Long id, JsonNode patch, Long expectedVersion)
+            throws ValidationException, EntityNotFoundException, PreconditionFailedException {
+        LOGGER.log(Level.INFO, "Patching HumanBeing with ID: {0}", id);
+
+        try {
+            HumanBeing existing = humanBeingDao.findById(id).orElseThrow(
+                () -> new EntityNotFoundException("HumanBeing with ID " + id + " not found"));
+
+            if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+                throw new PreconditionFailedException("HumanBeing with ID " + id +
+                    " has version " + existing.getVersion() + ", expected " + expectedVersion);
+            }
+
+            Set<String> changed = mergePatchApplier.apply(patch, existing, carDao::findById, carDeduplicator.isEnabled());
+            if (changed.isEmpty()) {
+                return existing;
+            }
+            // coordinates before cars, the order every other writer locks in
+            Coordinates coordinates = existing.getCoordinates();
+            boolean coordinatesChanged = changed.contains("coordinates") && coordinates != null && coordinates.getX() != null;
+            try (CoordinateLockManager.CoordinateLock coordinateLock = coordinatesChanged
+                    ? coordinateLockManager.lock(coordinates.getX(), coordinates.getY())
+                    : null) {
+                if (existing.getCar() != null && existing.getCar().getId() == null) {
+                    existing.setCar(carDeduplicator.resolve(existing.getCar()));
+                }
+                if (changed.contains("weaponType") || changed.contains("impactSpeed")) {
+                    businessRulesValidator.applyMachineGunDefault(existing);
+                }
+
+                validateChangedProperties(existing, changed);
+                validatePatchedBusinessRules(existing, changed);
+                if (changed.contains("car")) {
+                    // the car may have been edited in place, which leaves this row's version (the ETag) as it was
+                    humanBeingDao.forceVersionIncrement(existing);
+                }
+
+                if (coordinatesChanged) {
+                    ValidationErrors errors = new ValidationErrors();
+                    businessRulesValidator.validateCoordinatesAvailable(coordinates, existing.getId(), errors);
+                    errors.throwIfAny();
+                }
+                humanBeingDao.flush();
+            }
+
+            LOGGER.log(Level.INFO, "Successfully patched HumanBeing with ID: {0}, fields: {1}", new Object[]{id, changed});
+            return existing;
+        } catch (ValidationException | EntityNotFoundException | PreconditionFailedException e) {
+            sessionContext.setRollbackOnly();
+            throw e;
+        } catch (Exception e) {
+            sessionContext.setRollbackOnly();
+            throw new RuntimeException("Failed to patch HumanBeing: " + e.getMessage(), e);
+        }
+    }
+
     public Optional<HumanBeing> getHumanBeingById(Long id) {
         LOGGER.log(Level.INFO, "Retrieving HumanBeing with ID: {0}", id);
         return humanBeingDao.findById(id);
@@ -240,32 +369,148 @@ public class HumanBeingService {
 
 
     private void validateHumanBeing(HumanBeing humanBeing) throws ValidationException {
-        Set<ConstraintViolation<HumanBeing>> violations = validator.validate(humanBeing);
-        
+        throwIfViolated(validator.validate(humanBeing));
+    }
+
+    /** Bean Validation limited to the patched properties; validateProperty does not cascade into @Valid members. */
+    private void validateChangedProperties(HumanBeing humanBeing, Set<String> changed) throws ValidationException {
+        List<ConstraintViolation<?>> violations = new ArrayList<>();
+        for (String property : changed) {
+            violations.addAll(validator.validateProperty(humanBeing, property));
+        }
+        if (changed.contains("coordinates") && humanBeing.getCoordinates() != null) {
+            violations.addAll(validator.validate(humanBeing.getCoordinates()));
+        }
+        if (changed.contains("car") && humanBeing.getCar() != null) {
+            violations.addAll(validator.validate(humanBeing.getCar()));
+        }
+        throwIfViolated(violations);
+    }
+
+    private void throwIfViolated(Collection<? extends ConstraintViolation<?>> violations) throws ValidationException {
         if (!violations.isEmpty()) {
             StringBuilder errorMessage = new StringBuilder("Validation failed: ");
-            for (ConstraintViolation<HumanBeing> violation : violations) {
+            for (ConstraintViolation<?> violation : violations) {
                 errorMessage.append(violation.getPropertyPath()).append(": ").append(violation.getMessage()).append("; ");
             }
             throw new ValidationException(errorMessage.toString());
         }
     }
 
+    private void validatePatchedBusinessRules(HumanBeing humanBeing, Set<String> changed) throws ValidationException {
+        ValidationErrors errors = new ValidationErrors();
+
+        if (changed.contains("name")) {
+            businessRulesValidator.validateName(humanBeing.getName(), errors);
+        }
+        if (changed.contains("coordinates")) {
+            businessRulesValidator.validateCoordinates(humanBeing.getCoordinates(), errors);
+        }
+        if (changed.contains("realHero") || changed.contains("impactSpeed")) {
+            businessRulesValidator.validateImpactSpeed(humanBeing, errors);
+        }
+        if (changed.contains("weaponType") || changed.contains("impactSpeed")) {
+            businessRulesValidator.validateMachineGunRule(humanBeing, errors);
+        }
+        if (changed.contains("minutesOfWaiting")) {
+            businessRulesValidator.validateMinutesOfWaiting(humanBeing.getMinutesOfWaiting(), errors);
+        }
+        if (changed.contains("soundtrackName")) {
+            businessRulesValidator.validateSoundtrackName(humanBeing.getSoundtrackName(), errors);
+        }
+        if (changed.contains("car")) {
+            businessRulesValidator.validateCar(humanBeing.getCar(), errors);
+        }
+
+        errors.throwIfAny();
+    }
+
 
-    private void validateBusinessRules(HumanBeing humanBeing, boolean isUpdate, Long excludeId) throws ValidationException {
-        StringBuilder errors = new StringBuilder();
+    /**
+     * @param existing the loaded row on update, {@code null} on create
+     */
+    private void validateBusinessRules(HumanBeing humanBeing, HumanBeing existing) throws ValidationException {
+        ValidationErrors errors = new ValidationErrors();
         
-        businessRulesValidator.validateUniqueCoordinates(humanBeing, isUpdate, excludeId, errors);
+        businessRulesValidator.validateUniqueCoordinates(humanBeing, existing, errors);
 
-        businessRulesValidator.validateMachineGunRule(humanBeing, isUpdate, excludeId, errors);
+        businessRulesValidator.validateMachineGunRule(humanBeing, existing, errors);
         
         businessRulesValidator.validateBusinessRules(humanBeing, errors);
 
-        if (errors.length() > 0) {
-            throw new ValidationException(errors.toString());
+        errors.throwIfAny();
+    }
+
+    private void applyChanges(HumanBeing target, HumanBeing source) {
+        if (!Objects.equals(target.getName(), source.getName())) {
+            target.setName(source.getName());
+        }
+        if (!Objects.equals(target.getCoordinates(), source.getCoordinates())) {
+            target.setCoordinates(new Coordinates(source.getCoordinates().getX(), source.getCoordinates().getY()));
+        }
+        if (!Objects.equals(target.getCreationDate(), source.getCreationDate())) {
+            target.setCreationDate(source.getCreationDate());
+        }
+        if (target.isRealHero() != source.isRealHero()) {
+            target.setRealHero(source.isRealHero());
+        }
+        if (!Objects.equals(target.getHasToothpick(), source.getHasToothpick())) {
+            target.setHasToothpick(source.getHasToothpick());
+        }
+        if (target.getMood() != source.getMood()) {
+            target.setMood(source.getMood());
+        }
+        if (Float.compare(target.getImpactSpeed(), source.getImpactSpeed()) != 0) {
+            target.setImpactSpeed(source.getImpactSpeed());
+        }
+        if (!Objects.equals(target.getSoundtrackName(), source.getSoundtrackName())) {
+            target.setSoundtrackName(source.getSoundtrackName());
+        }
+        if (!Objects.equals(target.getMinutesOfWaiting(), source.getMinutesOfWaiting())) {
+            target.setMinutesOfWaiting(source.getMinutesOfWaiting());
+        }
+        if (target.getWeaponType() != source.getWeaponType()) {
+            target.setWeaponType(source.getWeaponType());
         }
     }
 
-    
+    /**
+     * Links the requested car to the managed entity, creating it only when it has no id
+     * and touching the car row only when its fields actually differ.
+     * @return true if the car row was edited in place, which does not change the human being's version
+     */
+    private boolean applyCarChanges(HumanBeing target, Car requested) throws ValidationException {
+        if (requested == null) {
+            return false;
+        }
+        if (requested.getId() == null) {
+            target.setCar(carDeduplicator.resolve(requested));
+            return false;
+        }
+
+        Car car = target.getCar();
+        if (car == null || !requested.getId().equals(car.getId())) {
+            car = carDao.findById(requested.getId()).orElseThrow(
+                () -> new ValidationException("Car with ID " + requested.getId() + " not found"));
+            target.setCar(car);
+        }
+        if (carDeduplicator.isEnabled()) {
+            // cars are shared between rows: point at the matching car instead of editing this one
+            if (!Objects.equals(car.getName(), requested.getName()) || car.isCool() != requested.isCool()) {
+                target.setCar(carDeduplicator.resolve(new Car(requested.getName(), requested.isCool())));
+            }
+            return false;
+        }
+        boolean edited = false;
+        if (!Objects.equals(car.getName(), requested.getName())) {
+            car.setName(requested.getName());
+            edited = true;
+        }
+        if (car.isCool() != requested.isCool()) {
+            car.setCool(requested.isCool());
+            edited = true;
+        }
+        return edited;
+    }
 
 }
@@ -0,0 +1,124 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.dao.IdempotencyRecordDao;
+import com.humanbeingmanager.entity.IdempotencyRecord;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Idempotency-Key bookkeeping. Every step commits on its own so a reservation is visible to
+ * concurrent retries before the work starts, and the stored response outlives the request.
+ */
+@Stateless
+public class IdempotencyService {
+
+    private static final Logger LOGGER = Logger.getLogger(IdempotencyService.class.getName());
+
+    private static final String TTL_SECONDS_PROP = "idempotency.ttlSeconds";
+    private static final String LEASE_SECONDS_PROP = "idempotency.inProgressLeaseSeconds";
+
+    // keys this node is working on, with the reservation each belongs to; renewed until completed or abandoned
+    private static final ConcurrentHashMap<String, Date> heldReservations = new ConcurrentHashMap<>();
+
+    @EJB
+    private IdempotencyRecordDao idempotencyRecordDao;
+
+    /**
+     * Reserves the key for the caller. The reservation is a lease of {@code idempotency.inProgressLeaseSeconds},
+     * renewed every minute while this node holds it, so only a key whose node died is taken over.
+     * @param reservedAt identifies the caller's reservation to {@link #complete} and {@link #abandon}
+     * @return empty if the caller now owns the key and must do the work, otherwise the record of
+     *         the earlier request (still running or completed)
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Optional<IdempotencyRecord> begin(String key, String requestHash, Date reservedAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(key);
+        record.setRequestHash(requestHash);
+        record.setState(IdempotencyRecord.IN_PROGRESS);
+        record.setCreatedAt(reservedAt);
+        record.setExpiresAt(new Date(reservedAt.getTime() + TimeUnit.SECONDS.toMillis(leaseSeconds())));
+
+        if (idempotencyRecordDao.insertIfAbsent(record)) {
+            heldReservations.put(key, reservedAt);
+            return Optional.empty();
+        }
+        Optional<IdempotencyRecord> existing = idempotencyRecordDao.findByKey(key);
+        if (existing.isPresent() && !existing.get().getExpiresAt().before(reservedAt)) {
+            return existing;
+        }
+        // expired, or left IN_PROGRESS by a node that died: take the key over, unless another retry already did
+        boolean released = existing.isEmpty() ||
+            idempotencyRecordDao.deleteIfUnchanged(key, existing.get().getCreatedAt(), existing.get().getState());
+        if (released && idempotencyRecordDao.insertIfAbsent(record)) {
+            heldReservations.put(key, reservedAt);
+            return Optional.empty();
+        }
+        // someone else got the key first; if their record is already gone too, answer as if it were still running
+        return Optional.of(idempotencyRecordDao.findByKey(key).orElse(record));
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void complete(String key, Date reservedAt, int status, String body, String etag) {
+        heldReservations.remove(key, reservedAt);
+        Date expiresAt = new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds()));
+        if (!idempotencyRecordDao.complete(key, reservedAt, status, body, etag, expiresAt)) {
+            LOGGER.log(Level.WARNING, "Idempotency key {0} was taken over before its response was stored", key);
+        }
+    }
+
+    /** Forgets a reservation whose request failed on the server side, so a retry does the work again. */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void abandon(String key, Date reservedAt) {
+        heldReservations.remove(key, reservedAt);
+        idempotencyRecordDao.deleteIfUnchanged(key, reservedAt, IdempotencyRecord.IN_PROGRESS);
+    }
+
+    /** Keeps the reservations of requests still running on this node from being taken for abandoned. */
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void renewLeases() {
+        Date expiresAt = new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseSeconds()));
+        try {
+            for (Map.Entry<String, Date> held : heldReservations.entrySet()) {
+                if (!idempotencyRecordDao.renew(held.getKey(), held.getValue(), expiresAt)) {
+                    // completed, abandoned or taken over meanwhile
+                    heldReservations.remove(held.getKey(), held.getValue());
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to renew idempotency key leases", e);
+        }
+    }
+
+    @Schedule(hour = "*", minute = "*/10", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void purgeExpired() {
+        try {
+            int purged = idempotencyRecordDao.deleteExpired(new Date());
+            if (purged > 0) {
+                LOGGER.log(Level.INFO, "Purged {0} expired idempotency keys", purged);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to purge expired idempotency keys", e);
+        }
+    }
+
+    private static long leaseSeconds() {
+        return Long.parseLong(System.getProperty(LEASE_SECONDS_PROP, "600"));
+    }
+
+    private static long ttlSeconds() {
+        return Long.parseLong(System.getProperty(TTL_SECONDS_PROP, "86400"));
+    }
+}
@@ -0,0 +1,228 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.exception.ImportRejectedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Admission control for imports: at most {@code import.admission.maxConcurrent} run at once, the rest
+ * wait in a bounded queue. Waiting imports are admitted round-robin by client, so one client's burst
+ * cannot hold back everyone else, and no client may hold more than {@code import.admission.maxQueuedPerClient}
+ * places. A full queue rejects with a retry estimate instead of piling more work onto the database.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ImportAdmissionController {
+
+    private static final Logger LOGGER = Logger.getLogger(ImportAdmissionController.class.getName());
+
+    private static final String MAX_CONCURRENT_PROP = "import.admission.maxConcurrent";
+    private static final String QUEUE_CAPACITY_PROP = "import.admission.queueCapacity";
+    private static final String MAX_QUEUED_PER_CLIENT_PROP = "import.admission.maxQueuedPerClient";
+    private static final String MAX_WAIT_MS_PROP = "import.admission.maxWaitMs";
+
+    private static final long DEFAULT_IMPORT_MILLIS = 5000;
+    private static final long MAX_RETRY_AFTER_SECONDS = 600;
+
+    private int maxConcurrent;
+    private int queueCapacity;
+    private int maxQueuedPerClient;
+    private long maxWaitMillis;
+
+    // guarded by this
+    private int running;
+    private int queued;
+    private final Map<String, ArrayDeque<Ticket>> waiting = new LinkedHashMap<>();
+
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        maxConcurrent = Math.max(1, Integer.parseInt(System.getProperty(MAX_CONCURRENT_PROP, "4")));
+        queueCapacity = Math.max(0, Integer.parseInt(System.getProperty(QUEUE_CAPACITY_PROP, "32")));
+        maxQueuedPerClient = Math.max(1, Integer.parseInt(System.getProperty(MAX_QUEUED_PER_CLIENT_PROP, "8")));
+        maxWaitMillis = Long.parseLong(System.getProperty(MAX_WAIT_MS_PROP, "30000"));
+        LOGGER.log(Level.INFO, "Import admission: {0} concurrent, queue of {1}, {2} queued per client",
+                   new Object[]{maxConcurrent, queueCapacity, maxQueuedPerClient});
+    }
+
+    /**
+     * Takes a place for {@code client}: admitted right away when a slot is free and nobody is waiting,
+     * queued otherwise. The ticket must be released whatever happens to the import.
+     * @throws ImportRejectedException if the queue, or the client's share of it, is full
+     */
+    public Ticket enqueue(String client) throws ImportRejectedException {
+        Ticket ticket = new Ticket(client);
+        synchronized (this) {
+            if (running < maxConcurrent && queued == 0) {
+                running++;
+                ticket.admitted = true;
+            } else {
+                ArrayDeque<Ticket> clientQueue = waiting.get(client);
+                int clientQueued = clientQueue != null ? clientQueue.size() : 0;
+                if (queued >= queueCapacity || clientQueued >= maxQueuedPerClient) {
+                    rejected.increment();
+                    long retryAfter = retryAfterSeconds();
+                    LOGGER.log(Level.WARNING, "Import of {0} rejected: {1} running, {2} queued ({3} by this client)",
+                               new Object[]{client, running, queued, clientQueued});
+                    throw new ImportRejectedException(queued >= queueCapacity
+                        ? "Too many imports in progress, retry in " + retryAfter + " s"
+                        : "Too many imports queued for this client, retry in " + retryAfter + " s", retryAfter);
+                }
+                waiting.computeIfAbsent(client, key -> new ArrayDeque<>()).add(ticket);
+                queued++;
+                return ticket;
+            }
+        }
+        ticket.grant();
+        return ticket;
+    }
+
+    public Map<String, Object> getMetrics() {
+        long admittedCount = admissions.sum();
+        long completedCount = completed.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("maxConcurrent", maxConcurrent);
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("maxQueuedPerClient", maxQueuedPerClient);
+        metrics.put("waitLimitMs", maxWaitMillis);
+        synchronized (this) {
+            metrics.put("running", running);
+            metrics.put("queueDepth", queued);
+            metrics.put("queuedClients", waiting.size());
+        }
+        metrics.put("admitted", admittedCount);
+        metrics.put("rejected", rejected.sum());
+        metrics.put("timedOut", timedOut.sum());
+        metrics.put("avgWaitMs", admittedCount > 0 ? waitNanos.sum() / 1e6 / admittedCount : 0.0);
+        metrics.put("maxWaitMs", maxWaitNanos.get() / 1e6);
+        metrics.put("avgImportMs", completedCount > 0 ? runNanos.sum() / 1e6 / completedCount : 0.0);
+        return metrics;
+    }
+
+    /** Admits queued tickets into free slots, taking one client at a time in turn. */
+    private void dispatch() {
+        List<Ticket> granted = new ArrayList<>();
+        synchronized (this) {
+            while (running < maxConcurrent && !waiting.isEmpty()) {
+                Map.Entry<String, ArrayDeque<Ticket>> next = waiting.entrySet().iterator().next();
+                Ticket ticket = next.getValue().poll();
+                waiting.remove(next.getKey());
+                if (!next.getValue().isEmpty()) {
+                    // to the back of the line with the rest of its imports
+                    waiting.put(next.getKey(), next.getValue());
+                }
+                queued--;
+                running++;
+                ticket.admitted = true;
+                granted.add(ticket);
+            }
+        }
+        // completed outside the lock: async tickets submit their job from the callback
+        granted.forEach(Ticket::grant);
+    }
+
+    private synchronized long retryAfterSeconds() {
+        long completedCount = completed.sum();
+        long importMillis = completedCount > 0 ? runNanos.sum() / 1_000_000 / completedCount : DEFAULT_IMPORT_MILLIS;
+        long rounds = queued / maxConcurrent + 1;
+        long seconds = (importMillis * rounds + 999) / 1000;
+        return Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, seconds));
+    }
+
+    /** A place in the admission queue, then a running slot once admitted. */
+    public class Ticket {
+
+        private final String client;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<Void> admission = new CompletableFuture<>();
+        private volatile long admittedNanos;
+        // guarded by the controller
+        private boolean admitted;
+        private boolean released;
+
+        private Ticket(String client) {
+            this.client = client;
+        }
+
+        /** Completes when the import may start; async imports start their job from it. */
+        public CompletableFuture<Void> admission() {
+            return admission;
+        }
+
+        /**
+         * Blocks a synchronous request until admitted.
+         * @throws ImportRejectedException if not admitted within {@code import.admission.maxWaitMs}; the place is given up
+         */
+        public void await() throws ImportRejectedException, InterruptedException {
+            try {
+                admission.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                timedOut.increment();
+                release();
+                long retryAfter = retryAfterSeconds();
+                throw new ImportRejectedException("Import was not admitted within " + maxWaitMillis + " ms, retry in " +
+                                                  retryAfter + " s", retryAfter);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        /** Gives the slot back, or the queue place if the import never started. Safe to call more than once. */
+        public void release() {
+            synchronized (ImportAdmissionController.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                if (admitted) {
+                    running--;
+                } else {
+                    ArrayDeque<Ticket> clientQueue = waiting.get(client);
+                    clientQueue.remove(this);
+                    queued--;
+                    if (clientQueue.isEmpty()) {
+                        waiting.remove(client);
+                    }
+                }
+            }
+            long started = admittedNanos;
+            if (started != 0) {
+                completed.increment();
+                runNanos.add(System.nanoTime() - started);
+            }
+            dispatch();
+        }
+
+        private void grant() {
+            long now = System.nanoTime();
+            admittedNanos = now;
+            long waited = now - enqueuedNanos;
+            admissions.increment();
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            admission.complete(null);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.dto.ImportResultDto;
+import com.humanbeingmanager.validator.RowErrorSink;
+import com.humanbeingmanager.validator.ValidationErrorCode;
+import com.humanbeingmanager.validator.ValidationErrors;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Error channel of one import. Each error is a compact (row, code, arguments) record: the first
+ * {@code import.maxReportedErrors} are kept for the response, and every one is appended to a CSV spool
+ * that {@link #attachTo} publishes to MinIO as the downloadable report. Messages are only rendered
+ * for the response and the report, so a hopeless file can't fill the heap.
+ * Past {@code import.errors.failFastAfter} errors (0: never) the import should stop reading.
+ */
+final class ImportErrorReport implements RowErrorSink, Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(ImportErrorReport.class.getName());
+
+    private static final String MAX_REPORTED_ERRORS_PROP = "import.maxReportedErrors";
+    private static final String FAIL_FAST_AFTER_PROP = "import.errors.failFastAfter";
+
+    private final int limit;
+    private final int failFastAfter;
+    private final List<Entry> entries = new ArrayList<>();
+    private int count;
+    private Path spool;
+    private BufferedWriter spoolWriter;
+    private boolean spoolFailed;
+
+    ImportErrorReport(int limit, int failFastAfter) {
+        this.limit = limit;
+        this.failFastAfter = failFastAfter;
+    }
+
+    static ImportErrorReport fromConfig() {
+        return new ImportErrorReport(Integer.parseInt(System.getProperty(MAX_REPORTED_ERRORS_PROP, "1000")),
+                                     Integer.parseInt(System.getProperty(FAIL_FAST_AFTER_PROP, "0")));
+    }
+
+    @Override
+    public void add(int row, ValidationErrorCode code, Object... args) {
+        record(new Entry(row, code, args, null));
+    }
+
+    /** One record per failed rule of the row. */
+    void addRow(int row, ValidationErrors errors) {
+        for (int i = 0; i < errors.size(); i++) {
+            record(new Entry(row, errors.getCode(i), errors.getArgs(i), null));
+        }
+    }
+
+    /** An error that is not about a single row, e.g. a failed chunk. */
+    void add(String message) {
+        record(new Entry(0, null, null, message));
+    }
+
+    int count() {
+        return count;
+    }
+
+    /** Whether the fail-fast threshold is reached and reading further rows is pointless. */
+    boolean shouldStop() {
+        return failFastAfter > 0 && count >= failFastAfter;
+    }
+
+    List<String> toList() {
+        List<String> result = new ArrayList<>(entries.size() + 1);
+        for (Entry entry : entries) {
+            result.add(entry.render());
+        }
+        if (count > entries.size()) {
+            result.add("... and " + (count - entries.size()) + " more errors");
+        }
+        return result;
+    }
+
+    /**
+     * Uploads the full report, if there were errors, and links it from the result. A report that can't be
+     * written or uploaded is logged and left out; the import outcome doesn't depend on it.
+     */
+    ImportResultDto attachTo(ImportResultDto result, MinIOService minIOService) {
+        Path report = takeSpool();
+        if (report != null) {
+            publish(report, result, minIOService);
+        }
+        return result;
+    }
+
+    /**
+     * {@link #attachTo} once the current transaction has ended, so the upload doesn't run while the import
+     * holds its connection and locks. Call it before marking the transaction rollback-only; the result is
+     * linked once the transaction has ended.
+     */
+    ImportResultDto attachAfterCompletion(ImportResultDto result, MinIOService minIOService,
+                                          TransactionSynchronizationRegistry transactions) {
+        Path report = takeSpool();
+        if (report == null) {
+            return result;
+        }
+        try {
+            transactions.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    publish(report, result, minIOService);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Cannot defer the import error report, publishing it now", e);
+            publish(report, result, minIOService);
+        }
+        return result;
+    }
+
+    /** Hands the finished spool over to the caller, who deletes it; {@code null} if there is no report. */
+    private Path takeSpool() {
+        if (spool == null || spoolFailed) {
+            return null;
+        }
+        Path report = spool;
+        spool = null;
+        try {
+            spoolWriter.close();
+            spoolWriter = null;
+            return report;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write the import error report", e);
+            deleteSpool(report);
+            return null;
+        }
+    }
+
+    private static void publish(Path report, ImportResultDto result, MinIOService minIOService) {
+        try {
+            result.setErrorReportId(minIOService.uploadErrorReport(report));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to publish the import error report", e);
+        } finally {
+            deleteSpool(report);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (spool == null) {
+            return;
+        }
+        try {
+            if (spoolWriter != null) {
+                spoolWriter.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close error report spool " + spool, e);
+        }
+        deleteSpool(spool);
+    }
+
+    private static void deleteSpool(Path report) {
+        try {
+            Files.deleteIfExists(report);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete error report spool " + report, e);
+        }
+    }
+
+    private void record(Entry entry) {
+        count++;
+        if (entries.size() < limit) {
+            entries.add(entry);
+        }
+        if (spoolFailed) {
+            return;
+        }
+        try {
+            if (spoolWriter == null) {
+                spool = Files.createTempFile("import-errors-", ".csv");
+                spoolWriter = Files.newBufferedWriter(spool, StandardCharsets.UTF_8);
+                spoolWriter.write("row,field,code,message\n");
+            }
+            spoolWriter.write(entry.row > 0 ? String.valueOf(entry.row) : "");
+            spoolWriter.write(',');
+            spoolWriter.write(entry.code != null ? entry.code.getField() : "");
+            spoolWriter.write(',');
+            spoolWriter.write(entry.code != null ? entry.code.name() : "");
+            spoolWriter.write(",\"");
+            spoolWriter.write(entry.message().replace("\"", "\"\""));
+            spoolWriter.write("\"\n");
+        } catch (IOException e) {
+            // the response still has the first errors; only the full report is lost
+            LOGGER.log(Level.WARNING, "Failed to spool import error report", e);
+            spoolFailed = true;
+        }
+    }
+
+    private static final class Entry {
+
+        private final int row;
+        private final ValidationErrorCode code;
+        private final Object[] args;
+        private final String text;
+
+        private Entry(int row, ValidationErrorCode code, Object[] args, String text) {
+            this.row = row;
+            this.code = code;
+            this.args = args;
+            this.text = text;
+        }
+
+        private String message() {
+            return code != null ? code.render(args) : text;
+        }
+
+        private String render() {
+            return row > 0 ? "Row " + row + ": " + message() : message();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.humanbeingmanager.service;
+
+import java.util.Date;
+
+/** A file import running in the background; finished jobs keep their response for the status endpoint. */
+public class ImportJob {
+
+    private final String id;
+    private final ImportProgress progress;
+    private final Date createdAt = new Date();
+    private volatile Date finishedAt;
+    private volatile Integer resultStatus;
+    private volatile Object result;
+
+    public ImportJob(String id, ImportProgress progress) {
+        this.id = id;
+        this.progress = progress;
+    }
+
+    /** Records the response the synchronous endpoint would have returned. */
+    public void finish(int status, Object body) {
+        this.result = body;
+        this.resultStatus = status;
+        this.finishedAt = new Date();
+        progress.setPhase(status < 400 ? ImportProgress.Phase.COMPLETED : ImportProgress.Phase.FAILED);
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ImportProgress getProgress() {
+        return progress;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Integer getResultStatus() {
+        return resultStatus;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+}
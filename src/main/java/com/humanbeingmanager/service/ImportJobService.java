@@ -0,0 +1,88 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.dto.ApiResponseDto;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs file imports on the managed executor and keeps their progress in memory for polling.
+ * Jobs live on the node that accepted them; finished ones are dropped after
+ * {@code import.jobs.retentionSeconds}, their outcome stays in the import history.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ImportJobService {
+
+    private static final Logger LOGGER = Logger.getLogger(ImportJobService.class.getName());
+
+    private static final String RETENTION_SECONDS_PROP = "import.jobs.retentionSeconds";
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * The job stays queued, without holding an executor thread, until {@code admission} completes.
+     * @param work      runs the import and calls {@link ImportJob#finish}
+     * @param cleanup   runs once the job is over or could not be started, e.g. to delete the spooled file
+     * @param admission completes when the import may start
+     */
+    public ImportJob submit(ImportProgress progress, Consumer<ImportJob> work, Runnable cleanup,
+                            CompletableFuture<?> admission) {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), progress);
+        jobs.put(job.getId(), job);
+        admission.whenComplete((ignored, failure) -> {
+            try {
+                if (failure != null) {
+                    throw new IllegalStateException("Import was not admitted", failure);
+                }
+                executor.execute(() -> run(job, work, cleanup));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Import job " + job.getId() + " could not be started", e);
+                job.finish(503, ApiResponseDto.error("Import job could not be started: " + e.getMessage()));
+                cleanup.run();
+            }
+        });
+        LOGGER.info("Import job submitted: " + job.getId());
+        return job;
+    }
+
+    public Optional<ImportJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @Schedule(hour = "*", minute = "*/5", persistent = false)
+    public void purgeFinished() {
+        long cutoff = System.currentTimeMillis() -
+                      Long.parseLong(System.getProperty(RETENTION_SECONDS_PROP, "3600")) * 1000;
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().getTime() < cutoff);
+    }
+
+    private void run(ImportJob job, Consumer<ImportJob> work, Runnable cleanup) {
+        try {
+            work.accept(job);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Import job " + job.getId() + " failed", e);
+        } finally {
+            if (!job.isFinished()) {
+                job.finish(500, ApiResponseDto.error("Import job failed unexpectedly"));
+            }
+            cleanup.run();
+            LOGGER.log(Level.INFO, "Import job {0} finished with status {1}",
+                       new Object[]{job.getId(), job.getResultStatus()});
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.dto.HumanBeingDto;
+import com.humanbeingmanager.importer.ImportRowReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of one file import: written by the importing thread, read by status requests.
+ * Rows are counted as they are read; the ETA extrapolates from the share of the file consumed.
+ */
+public class ImportProgress {
+
+    public enum Phase { QUEUED, STORING, PREPARING, IMPORTING, COMMITTING, COMPLETED, FAILED }
+
+    private final long totalBytes;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private volatile Phase phase = Phase.QUEUED;
+    private volatile long importStartedNanos;
+    private volatile Long importHistoryId;
+
+    public ImportProgress(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public void setPhase(Phase phase) {
+        if (phase == Phase.IMPORTING && importStartedNanos == 0) {
+            importStartedNanos = System.nanoTime();
+        }
+        this.phase = phase;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public Long getImportHistoryId() {
+        return importHistoryId;
+    }
+
+    public void setImportHistoryId(Long importHistoryId) {
+        this.importHistoryId = importHistoryId;
+    }
+
+    /** Rows per second since the import phase started; 0 before it. */
+    public double getRowsPerSecond() {
+        double seconds = importSeconds();
+        return seconds > 0 ? rowsProcessed.get() / seconds : 0;
+    }
+
+    /** Seconds left while importing, or {@code null} when there is nothing to extrapolate from. */
+    public Long getEtaSeconds() {
+        double seconds = importSeconds();
+        long read = bytesRead.get();
+        if (phase != Phase.IMPORTING || seconds <= 0 || read == 0) {
+            return null;
+        }
+        return Math.round((totalBytes - read) / (read / seconds));
+    }
+
+    /** Counts the bytes the import reads from the file. */
+    public InputStream track(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesRead.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    bytesRead.addAndGet(n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                bytesRead.addAndGet(skipped);
+                return skipped;
+            }
+        };
+    }
+
+    /** Counts the rows handed to the import. */
+    public ImportRowReader track(ImportRowReader rows) {
+        return new ImportRowReader() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public HumanBeingDto next() {
+                HumanBeingDto row = rows.next();
+                rowsProcessed.incrementAndGet();
+                return row;
+            }
+
+            @Override
+            public boolean isPrevalidated() {
+                return rows.isPrevalidated();
+            }
+
+            @Override
+            public void close() throws IOException {
+                rows.close();
+            }
+        };
+    }
+
+    private double importSeconds() {
+        long started = importStartedNanos;
+        return started == 0 ? 0 : (System.nanoTime() - started) / 1e9;
+    }
+}
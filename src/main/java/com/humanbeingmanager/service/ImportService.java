@@ -1,16 +1,20 @@
 package com.humanbeingmanager.service;
 
 import com.humanbeingmanager.dao.HumanBeingDao;
-import com.humanbeingmanager.dao.CarDao;
+import com.humanbeingmanager.dao.ImportChunkDao;
 import com.humanbeingmanager.entity.HumanBeing;
 import com.humanbeingmanager.entity.Car;
-import com.humanbeingmanager.entity.Mood;
-import com.humanbeingmanager.entity.WeaponType;
+import com.humanbeingmanager.entity.Coordinates;
+import com.humanbeingmanager.entity.ImportChunk;
 import com.humanbeingmanager.dto.HumanBeingDto;
 import com.humanbeingmanager.dto.ImportResultDto;
+import com.humanbeingmanager.importer.ImportRowReader;
+import com.humanbeingmanager.importer.NdjsonRowWriter;
 import com.humanbeingmanager.mapper.EntityDtoMapper;
 import com.humanbeingmanager.validator.BusinessRulesValidator;
-import com.humanbeingmanager.exception.ValidationException;
+import com.humanbeingmanager.validator.ParallelRowValidator;
+import com.humanbeingmanager.validator.ValidationErrorCode;
+import com.humanbeingmanager.validator.ValidationErrors;
 import jakarta.ejb.Stateless;
 import jakarta.ejb.TransactionAttribute;
 import jakarta.ejb.TransactionAttributeType;
@@ -18,8 +22,13 @@ import jakarta.ejb.SessionContext;
 import jakarta.ejb.EJB;
 import jakarta.inject.Inject;
 import jakarta.annotation.Resource;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -29,11 +38,17 @@ public class ImportService {
 
     private static final Logger LOGGER = Logger.getLogger(ImportService.class.getName());
 
+    private static final String CHUNK_SIZE_PROP = "import.chunkSize";
+    private static final String LOCK_MAX_KEYS_PROP = "import.lock.maxKeys";
+
     @EJB
     private HumanBeingDao humanBeingDao;
 
     @EJB
-    private CarDao carDao;
+    private ImportChunkDao importChunkDao;
+
+    @EJB
+    private MinIOService minIOService;
 
     @Inject
     private EntityDtoMapper mapper;
@@ -41,165 +56,287 @@ public class ImportService {
     @Inject
     private BusinessRulesValidator businessRulesValidator;
 
+    @Inject
+    private ParallelRowValidator rowValidator;
+
+    @Inject
+    private CoordinateLockManager coordinateLockManager;
+
+    @Inject
+    private CarDeduplicator carDeduplicator;
+
     @Resource
     private SessionContext sessionContext;
 
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public ImportResultDto importHumanBeings(List<HumanBeingDto> humanBeingDtos, String transactionId) {
-        LOGGER.log(Level.INFO, "Starting import of {0} HumanBeings (transaction: {1})", 
-                   new Object[]{humanBeingDtos.size(), transactionId});
-        
-        List<String> errors = new ArrayList<>();
-        int successfullyImported = 0;
+        // already in memory: one chunk, locked key by key up to import.lock.maxKeys rows
+        return importRows(ImportRowReader.of(humanBeingDtos), Math.max(1, humanBeingDtos.size()), 1, transactionId, true);
+    }
+
+    /**
+     * One chunk of a chunked-commit import, committed on its own together with its {@link ImportChunk} record.
+     * Row numbers in the errors count from {@code chunk.getFirstRow()}. No report is published; the
+     * chunked import reports for all its chunks.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public ImportResultDto importChunk(List<HumanBeingDto> rows, ImportChunk chunk) {
+        ImportResultDto result = importRows(ImportRowReader.of(rows), Math.max(1, rows.size()), chunk.getFirstRow(),
+                                            "import-" + chunk.getImportId() + "-chunk-" + chunk.getChunkIndex(), false);
+        if (result.isSuccess()) {
+            importChunkDao.create(chunk);
+        }
+        return result;
+    }
+
+    /**
+     * Streaming import: rows are validated, written and flushed {@code import.chunkSize} at a time and the
+     * persistence context is cleared after each chunk, so memory does not grow with the input.
+     * Any bad row still rolls back the whole import.
+     */
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public ImportResultDto importHumanBeings(ImportRowReader rows, String transactionId) {
+        return importRows(rows, Integer.parseInt(System.getProperty(CHUNK_SIZE_PROP, "1000")), 1, transactionId, true);
+    }
+
+    /**
+     * Dry run: the row rules and the coordinate checks, within the file and against the database, without
+     * locking or writing anything. Rows go to {@code accepted} as long as none has failed, so after a
+     * successful run it holds the whole file. The coordinates seen are kept for the whole file.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ImportResultDto validateImport(ImportRowReader rows, NdjsonRowWriter accepted) {
+        int chunkSize = Integer.parseInt(System.getProperty(CHUNK_SIZE_PROP, "1000"));
+        LOGGER.log(Level.INFO, "Starting dry run (chunk size: {0})", chunkSize);
+
+        Map<Coordinates, Integer> seenCoordinates = new HashMap<>();
+        int totalProcessed = 0;
         int failed = 0;
-        
-        try {
-            for (int i = 0; i < humanBeingDtos.size(); i++) {
-                HumanBeingDto dto = humanBeingDtos.get(i);
-                try {
-                    validateImportData(dto, i + 1);
-                } catch (ValidationException e) {
-                    errors.add("Row " + (i + 1) + ": " + e.getMessage());
-                    failed++;
+
+        try (ImportErrorReport errors = ImportErrorReport.fromConfig()) {
+            List<HumanBeingDto> batch = new ArrayList<>(Math.min(chunkSize, 4096));
+            while (true) {
+                batch.clear();
+                while (batch.size() < chunkSize && rows.hasNext()) {
+                    batch.add(rows.next());
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int batchFirstRow = 1 + totalProcessed;
+                totalProcessed += batch.size();
+
+                ValidationErrors[] rowErrors = rowValidator.validate(batch);
+                List<HumanBeing> chunk = new ArrayList<>(batch.size());
+                for (int i = 0; i < rowErrors.length; i++) {
+                    if (rowErrors[i] != null) {
+                        errors.addRow(batchFirstRow + i, rowErrors[i]);
+                        failed++;
+                        chunk.add(null);
+                    } else {
+                        chunk.add(toEntity(batch.get(i)));
+                    }
+                }
+                failed += businessRulesValidator.validateImportCoordinates(chunk, batchFirstRow, seenCoordinates, errors);
+
+                if (failed == 0) {
+                    for (HumanBeingDto dto : batch) {
+                        accepted.write(dto);
+                    }
+                }
+                if (errors.shouldStop()) {
+                    return errors.attachTo(ImportResultDto.failure("Validation stopped after " + errors.count() + " errors",
+                                                                   totalProcessed, 0, failed, errors.toList()), minIOService);
                 }
             }
-            
-            if (!errors.isEmpty()) {
-                sessionContext.setRollbackOnly();
-                return ImportResultDto.failure("Validation failed - no objects imported", humanBeingDtos.size(), 
-                                          0, failed, errors);
+
+            if (totalProcessed == 0) {
+                return ImportResultDto.failure("No HumanBeings data provided", 0, 0, 0, errors.toList());
             }
+            if (failed > 0) {
+                return errors.attachTo(ImportResultDto.failure("Validation failed", totalProcessed, 0, failed,
+                                                               errors.toList()), minIOService);
+            }
+            LOGGER.log(Level.INFO, "Dry run passed: {0} rows", totalProcessed);
+            return ImportResultDto.success(totalProcessed, 0);
 
-            List<HumanBeing> entitiesToCreate = new ArrayList<>();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Dry run failed with exception", e);
+            return ImportResultDto.failure("Validation failed: " + e.getMessage(), totalProcessed, 0, totalProcessed, null);
+        }
+    }
 
-            for (int i = 0; i < humanBeingDtos.size(); i++) {
-                HumanBeingDto dto = humanBeingDtos.get(i);
-                HumanBeing humanBeing = mapper.toEntity(dto);
+    private ImportResultDto importRows(ImportRowReader rows, int chunkSize, int firstRow, String transactionId,
+                                       boolean publishReport) {
+        LOGGER.log(Level.INFO, "Starting import (transaction: {0}, chunk size: {1})",
+                   new Object[]{transactionId, chunkSize});
 
-                if (humanBeing.getCreationDate() == null) {
-                    humanBeing.setCreationDate(new java.util.Date());
-                }
+        int totalProcessed = 0;
+        int successfullyImported = 0;
+        int failed = 0;
+        boolean coordinatesFailed = false;
 
-                businessRulesValidator.applyMachineGunDefault(humanBeing);
+        try (ImportErrorReport errors = ImportErrorReport.fromConfig()) {
+            List<HumanBeingDto> batch = new ArrayList<>(Math.min(chunkSize, 4096));
+            Boolean perKey = null;
+            Long firstId = null;
+            Long lastId = null;
 
-                if (humanBeing.getCar() != null && humanBeing.getCar().getId() == null) {
-                    Car savedCar = carDao.create(humanBeing.getCar());
-                    humanBeing.setCar(savedCar);
+            while (true) {
+                batch.clear();
+                while (batch.size() < chunkSize && rows.hasNext()) {
+                    batch.add(rows.next());
                 }
-                
-                entitiesToCreate.add(humanBeing);
-            }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int batchFirstRow = firstRow + totalProcessed;
+                totalProcessed += batch.size();
 
-            //в рамках файла
-            for (int i = 0; i < entitiesToCreate.size(); i++) {
-                HumanBeing current = entitiesToCreate.get(i);
-                int rowNumber = i + 1;
-                
-                //в рмках файла
-                String duplicateError = businessRulesValidator.validateUniqueCoordinatesInImportList(
-                    entitiesToCreate, rowNumber
-                );
-                if (duplicateError != null) {
-                    throw new ValidationException(duplicateError);
+                // row rules are pure CPU work and run in parallel; the report still follows row order
+                if (!rows.isPrevalidated()) {
+                    ValidationErrors[] rowErrors = rowValidator.validate(batch);
+                    for (int i = 0; i < rowErrors.length; i++) {
+                        if (rowErrors[i] != null) {
+                            errors.addRow(batchFirstRow + i, rowErrors[i]);
+                            failed++;
+                        }
+                    }
                 }
-                
-                // в бд
-                StringBuilder coordinateErrors = new StringBuilder();
-                businessRulesValidator.validateUniqueCoordinates(current, false, null, coordinateErrors);
-                if (coordinateErrors.length() > 0) {
-                    throw new ValidationException("Row " + rowNumber + ": " + coordinateErrors.toString().trim());
+                if (errors.shouldStop()) {
+                    LOGGER.log(Level.INFO, "Import stopped after {0} errors at row {1}",
+                               new Object[]{errors.count(), firstRow + totalProcessed - 1});
+                    break;
                 }
+                // nothing gets written once a row failed; keep reading only to report every bad row
+                if (failed > 0 || coordinatesFailed) {
+                    continue;
+                }
+
+                List<HumanBeing> chunk = new ArrayList<>(batch.size());
+                for (HumanBeingDto dto : batch) {
+                    chunk.add(toEntity(dto));
+                }
+                if (perKey == null) {
+                    // Advisory locks stay until commit and PostgreSQL's lock table holds only about
+                    // max_locks_per_transaction per connection, so only small imports take one lock per row
+                    perKey = !rows.hasNext() &&
+                             chunk.size() <= Integer.parseInt(System.getProperty(LOCK_MAX_KEYS_PROP, "1000"));
+                }
+                int written = writeChunk(chunk, batchFirstRow, perKey, errors);
+                if (written < 0) {
+                    coordinatesFailed = true;
+                } else {
+                    successfullyImported += written;
+                    if (firstId == null) {
+                        firstId = chunk.get(0).getId();
+                    }
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            }
+
+            if (perKey != null && !perKey && failed == 0 && !coordinatesFailed && firstId != null) {
+                coordinatesFailed = recheckCoordinates(firstId, lastId, errors) > 0;
+            }
+
+            if (totalProcessed == 0) {
+                return ImportResultDto.failure("No HumanBeings data provided", 0, 0, 0, errors.toList());
             }
 
-            for (HumanBeing entity : entitiesToCreate) {
-                humanBeingDao.create(entity);
-                successfullyImported++;
+            if (failed > 0 || coordinatesFailed) {
+                ImportResultDto result = ImportResultDto.failure(
+                    errors.shouldStop() ? "Validation stopped after " + errors.count() + " errors - no objects imported"
+                                        : "Validation failed - no objects imported",
+                    totalProcessed, 0, failed > 0 ? failed : errors.count(), errors.toList());
+                if (publishReport) {
+                    errors.attachAfterCompletion(result, minIOService, transactionRegistry);
+                }
+                sessionContext.setRollbackOnly();
+                return result;
             }
-            
+
             LOGGER.log(Level.INFO, "Import completed successfully: {0} objects imported", successfullyImported);
-            
-            return ImportResultDto.success(humanBeingDtos.size(), successfullyImported);
-            
+
+            return ImportResultDto.success(totalProcessed, successfullyImported);
+
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Import failed with exception - all changes rolled back", e);
-            sessionContext.setRollbackOnly(); 
-            return ImportResultDto.failure("Import failed - no objects imported: " + e.getMessage(), 
-                                      humanBeingDtos.size(), 0, humanBeingDtos.size(), errors);
+            sessionContext.setRollbackOnly();
+            return ImportResultDto.failure("Import failed - no objects imported: " + e.getMessage(),
+                                      totalProcessed, 0, totalProcessed, null);
         }
     }
-    
-    private void validateImportData(HumanBeingDto dto, int rowNumber) throws ValidationException {
-        StringBuilder errors = new StringBuilder();
-        
-        if (dto.getName() == null || dto.getName().trim().isEmpty()) {
-            errors.append("Name is required; ");
+
+    private HumanBeing toEntity(HumanBeingDto dto) {
+        HumanBeing humanBeing = mapper.toEntity(dto);
+
+        if (humanBeing.getCreationDate() == null) {
+            humanBeing.setCreationDate(new java.util.Date());
         }
-        
-        if (dto.getCoordinates() == null) {
-            errors.append("Coordinates are required; ");
-        } else {
-            if (dto.getCoordinates().getX() == null) {
-                errors.append("Coordinates X is required; ");
-            }
+
+        businessRulesValidator.applyMachineGunDefault(humanBeing);
+        return humanBeing;
+    }
+
+    /**
+     * Checks and writes one chunk. A chunk locked per key is the whole import and is flushed by the commit.
+     * Any other chunk is written without coordinate locks, then flushed and detached: its rows are checked
+     * again by {@link #recheckCoordinates} at the end, and memory does not grow with the input.
+     * @return rows written, or -1 if a coordinate clash was reported instead
+     */
+    private int writeChunk(List<HumanBeing> chunk, int firstRow, boolean perKey, ImportErrorReport errors) {
+        // coordinates first, then car keys: the same order as a single create
+        if (perKey) {
+            coordinateLockManager.lockAll(chunk.stream()
+                .map(HumanBeing::getCoordinates)
+                .collect(Collectors.toList()));
         }
-        
-        if (dto.getCar() == null) {
-            errors.append("Car is required; ");
-        } else {
-            if (dto.getCar().getName() == null || dto.getCar().getName().trim().isEmpty()) {
-                errors.append("Car name is required; ");
-            }
+
+        // в рамках файла и в БД
+        if (businessRulesValidator.validateImportCoordinates(chunk, firstRow, errors) > 0) {
+            return -1;
         }
-        
-    
-        if (dto.getMood() == null || dto.getMood().trim().isEmpty()) {
-            errors.append("Mood is required; ");
-        } else {
-            try {
-                Mood.valueOf(dto.getMood().toUpperCase());
-            } catch (IllegalArgumentException e) {
-                errors.append("Invalid mood value.");
-            }
+
+        if (perKey) {
+            carDeduplicator.lockAll(chunk.stream()
+                .map(HumanBeing::getCar)
+                .collect(Collectors.toList()));
         }
-        
-        WeaponType weaponType = null;
-        if (dto.getWeaponType() == null || dto.getWeaponType().trim().isEmpty()) {
-            errors.append("Weapon type is required; ");
-        } else {
-            try {
-                weaponType = WeaponType.valueOf(dto.getWeaponType().toUpperCase());
-            } catch (IllegalArgumentException e) {
-                errors.append("Invalid weapon type value; ");
+
+        for (HumanBeing humanBeing : chunk) {
+            if (humanBeing.getCar() != null && humanBeing.getCar().getId() == null) {
+                Car savedCar = perKey ? carDeduplicator.resolve(humanBeing.getCar())
+                                      : carDeduplicator.resolveUnlocked(humanBeing.getCar());
+                humanBeing.setCar(savedCar);
             }
         }
 
-        if (weaponType != null) {
-            businessRulesValidator.validateMachineGunRule(weaponType, dto.getImpactSpeed(), errors);
-        }
-        
-        if (dto.getSoundtrackName() == null || dto.getSoundtrackName().trim().isEmpty()) {
-            errors.append("Soundtrack name is required; ");
-        }
-        
-        if (dto.getMinutesOfWaiting() == null) {
-            errors.append("Minutes of waiting is required; ");
+        for (HumanBeing entity : chunk) {
+            humanBeingDao.create(entity);
         }
 
-        businessRulesValidator.validateName(dto.getName(), errors);
-        businessRulesValidator.validateSoundtrackName(dto.getSoundtrackName(), errors);
-        businessRulesValidator.validateCar(dto.getCar(), errors);
-        businessRulesValidator.validateMinutesOfWaiting(dto.getMinutesOfWaiting(), errors);
-        
-        if (dto.getCoordinates() != null) {
-            businessRulesValidator.validateCoordinates(dto.getCoordinates(), errors);
-        }
-        
-        if (!errors.toString().isEmpty()) {
-            throw new ValidationException(errors.toString());
+        if (!perKey) {
+            humanBeingDao.flush();
+            humanBeingDao.clear();
         }
+        return chunk.size();
     }
 
-
-    
+    /**
+     * Final check of an import written without coordinate locks. Other writers are held off only from here
+     * until the commit, instead of for the whole import; a concurrent create that committed one of the
+     * imported coordinates after its chunk was checked shows up as a repeated pair.
+     * @return the number of pairs reported
+     */
+    private int recheckCoordinates(long firstId, long lastId, ImportErrorReport errors) {
+        coordinateLockManager.lockAllCoordinates();
+        Set<Coordinates> repeated = humanBeingDao.findRepeatedCoordinates(firstId, lastId);
+        for (Coordinates coordinates : repeated) {
+            errors.add(0, ValidationErrorCode.COORDINATES_TAKEN, coordinates.getX(), coordinates.getY());
+        }
+        return repeated.size();
+    }
 }
-
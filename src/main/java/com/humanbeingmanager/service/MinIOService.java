@@ -1,14 +1,23 @@
 package com.humanbeingmanager.service;
 
+import com.humanbeingmanager.importer.ImportFormat;
 import io.minio.*;
 import io.minio.errors.*;
+import io.minio.messages.Item;
 import jakarta.annotation.PostConstruct;
 import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.UUID;
 import java.util.logging.Logger;
 import java.util.logging.Level;
@@ -20,6 +29,8 @@ import java.util.concurrent.TimeUnit;
 public class MinIOService {
     
     private static final Logger LOGGER = Logger.getLogger(MinIOService.class.getName());
+
+    private static final String ERROR_REPORT_PREFIX = "import-errors/";
     
     private MinioClient minioClient;
     private String bucketName;
@@ -104,7 +115,7 @@ public class MinIOService {
     public String uploadFile(InputStream inputStream, String contentType, long size) 
             throws MinioException, IOException, NoSuchAlgorithmException, InvalidKeyException {
         checkMinIOAvailable();
-        String fileKey = generateFileKey();
+        String fileKey = generateFileKey(extensionOf(contentType));
         
         try {
             minioClient.putObject(
@@ -145,11 +156,66 @@ public class MinIOService {
         }
     }
     
-    public String uploadFileTemporary(InputStream inputStream, String contentType, long size) 
+    /**
+     * @param extension key suffix, e.g. {@code .csv.gz}, so the archived file keeps its format
+     */
+    public String uploadFileTemporary(Path file, String contentType, String extension) 
             throws MinioException, IOException, NoSuchAlgorithmException, InvalidKeyException {
         checkMinIOAvailable();
-        String tempKey = "temp/" + generateFileKey();
-        return uploadFileWithKey(inputStream, contentType, size, tempKey);
+        String tempKey = "temp/" + generateFileKey(extension);
+        // known size: the SDK sends it as a multipart upload, part by part straight from the channel
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return uploadFileWithKey(Channels.newInputStream(channel), contentType, channel.size(), tempKey);
+        }
+    }
+
+    /**
+     * Called once the import transaction has ended, so it takes part in none.
+     * @return the report id, the object name under {@code import-errors/}
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public String uploadErrorReport(Path file) throws MinioException, IOException,
+            NoSuchAlgorithmException, InvalidKeyException {
+        checkMinIOAvailable();
+        String reportId = UUID.randomUUID().toString() + ".csv";
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            uploadFileWithKey(Channels.newInputStream(channel), "text/csv", channel.size(), errorReportKey(reportId));
+        }
+        return reportId;
+    }
+
+    public static String errorReportKey(String reportId) {
+        return ERROR_REPORT_PREFIX + reportId;
+    }
+
+    /**
+     * Deletes the error reports uploaded before {@code before}.
+     * @return the number of reports deleted
+     */
+    public int purgeErrorReports(Instant before) throws MinioException, IOException,
+            NoSuchAlgorithmException, InvalidKeyException {
+        checkMinIOAvailable();
+        Iterable<Result<Item>> reports = minioClient.listObjects(
+            ListObjectsArgs.builder()
+                .bucket(bucketName)
+                .prefix(ERROR_REPORT_PREFIX)
+                .recursive(true)
+                .build()
+        );
+        int deleted = 0;
+        for (Result<Item> report : reports) {
+            Item item = report.get();
+            if (item.lastModified() != null && item.lastModified().toInstant().isBefore(before)) {
+                minioClient.removeObject(
+                    RemoveObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(item.objectName())
+                        .build()
+                );
+                deleted++;
+            }
+        }
+        return deleted;
     }
 
     private String uploadFileWithKey(InputStream inputStream, String contentType, long size, String key) 
@@ -244,14 +310,24 @@ public class MinIOService {
 
     public InputStream downloadFile(String fileKey) throws MinioException, IOException, 
             NoSuchAlgorithmException, InvalidKeyException {
+        return downloadFile(fileKey, 0, null);
+    }
+
+    /**
+     * Streams {@code length} bytes of the object from {@code offset}; a {@code null} length reads to the end.
+     * Only the requested bytes are fetched from MinIO.
+     */
+    public InputStream downloadFile(String fileKey, long offset, Long length) throws MinioException, IOException,
+            NoSuchAlgorithmException, InvalidKeyException {
         checkMinIOAvailable();
         try {
-            return minioClient.getObject(
-                GetObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(fileKey)
-                    .build()
-            );
+            GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(fileKey);
+            if (offset > 0 || length != null) {
+                args.offset(offset).length(length);
+            }
+            return minioClient.getObject(args.build());
         } catch (Exception e) {
             Throwable cause = e.getCause();
             String errorMsg;
@@ -297,6 +373,18 @@ public class MinIOService {
         }
     }
 
+    /** Size, ETag and modification time of a stored file. */
+    public StatObjectResponse statFile(String fileKey) throws MinioException, IOException,
+            NoSuchAlgorithmException, InvalidKeyException {
+        checkMinIOAvailable();
+        return minioClient.statObject(
+            StatObjectArgs.builder()
+                .bucket(bucketName)
+                .object(fileKey)
+                .build()
+        );
+    }
+
     public boolean fileExists(String fileKey) {
         if (minioClient == null) {
             return false;
@@ -314,8 +402,14 @@ public class MinIOService {
         }
     }
     
-    private String generateFileKey() {
-        return UUID.randomUUID().toString() + "_" + System.currentTimeMillis() + ".json";
+    private static String extensionOf(String contentType) {
+        ImportFormat format = ImportFormat.fromMediaType(contentType);
+        return format != null ? format.getExtension() : ImportFormat.JSON.getExtension();
+    }
+
+    /** The extension follows the import format, so a stored file can be read back the way it was imported. */
+    private String generateFileKey(String extension) {
+        return UUID.randomUUID().toString() + "_" + System.currentTimeMillis() + extension;
     }
     
     public String getBucketName() {
@@ -0,0 +1,70 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.importer.ImportCompression;
+import com.humanbeingmanager.importer.ImportFormat;
+import java.nio.file.Path;
+import java.util.Date;
+
+/**
+ * A validated dry run waiting for its commit: the upload as received, to be archived, and its rows
+ * spooled as NDJSON, to be imported without parsing or validating them again.
+ */
+public class StagedImport {
+
+    private final String token;
+    private final Path file;
+    private final Path rowsFile;
+    private final ImportFormat format;
+    private final ImportCompression compression;
+    private final String fileHash;
+    private final int rowCount;
+    private final Date expiresAt;
+
+    public StagedImport(String token, Path file, Path rowsFile, ImportFormat format, ImportCompression compression,
+                        String fileHash, int rowCount, Date expiresAt) {
+        this.token = token;
+        this.file = file;
+        this.rowsFile = rowsFile;
+        this.format = format;
+        this.compression = compression;
+        this.fileHash = fileHash;
+        this.rowCount = rowCount;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isExpired() {
+        return expiresAt.getTime() < System.currentTimeMillis();
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Path getRowsFile() {
+        return rowsFile;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public ImportCompression getCompression() {
+        return compression;
+    }
+
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+}
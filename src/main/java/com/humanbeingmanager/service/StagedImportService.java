@@ -0,0 +1,104 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.importer.ImportCompression;
+import com.humanbeingmanager.importer.ImportFormat;
+import jakarta.annotation.PreDestroy;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds dry-run imports on disk until they are committed by token. A token is claimed by one commit
+ * at a time and expires after {@code import.dryRun.ttlSeconds}; like import jobs, staged imports
+ * live on the node that ran the dry run.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class StagedImportService {
+
+    private static final Logger LOGGER = Logger.getLogger(StagedImportService.class.getName());
+
+    private static final String TTL_SECONDS_PROP = "import.dryRun.ttlSeconds";
+
+    private final Map<String, StagedImport> staged = new ConcurrentHashMap<>();
+
+    /** Takes ownership of both files; they are deleted once the import is committed or expires. */
+    public StagedImport stage(Path file, Path rowsFile, ImportFormat format, ImportCompression compression,
+                              String fileHash, int rowCount) {
+        long ttlMillis = Long.parseLong(System.getProperty(TTL_SECONDS_PROP, "900")) * 1000;
+        StagedImport stagedImport = new StagedImport(UUID.randomUUID().toString(), file, rowsFile, format, compression,
+                                                     fileHash, rowCount, new Date(System.currentTimeMillis() + ttlMillis));
+        staged.put(stagedImport.getToken(), stagedImport);
+        LOGGER.log(Level.INFO, "Dry run staged {0} rows, token expires at {1}",
+                   new Object[]{rowCount, stagedImport.getExpiresAt()});
+        return stagedImport;
+    }
+
+    public Optional<StagedImport> find(String token) {
+        StagedImport stagedImport = staged.get(token);
+        return stagedImport == null || stagedImport.isExpired() ? Optional.empty() : Optional.of(stagedImport);
+    }
+
+    /** Removes the staged import for a commit; a concurrent commit of the same token finds nothing. */
+    public Optional<StagedImport> claim(String token) {
+        StagedImport stagedImport = staged.remove(token);
+        if (stagedImport == null) {
+            return Optional.empty();
+        }
+        if (stagedImport.isExpired()) {
+            discard(stagedImport);
+            return Optional.empty();
+        }
+        return Optional.of(stagedImport);
+    }
+
+    /** Puts back a claimed import whose commit failed, so it can be retried until the token expires. */
+    public void release(StagedImport stagedImport) {
+        if (stagedImport.isExpired()) {
+            discard(stagedImport);
+        } else {
+            staged.put(stagedImport.getToken(), stagedImport);
+        }
+    }
+
+    public void discard(StagedImport stagedImport) {
+        deleteQuietly(stagedImport.getFile());
+        deleteQuietly(stagedImport.getRowsFile());
+    }
+
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    public void purgeExpired() {
+        staged.values().removeIf(stagedImport -> {
+            if (stagedImport.isExpired()) {
+                discard(stagedImport);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void discardAll() {
+        staged.values().forEach(this::discard);
+        staged.clear();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete staged import file " + file, e);
+        }
+    }
+}
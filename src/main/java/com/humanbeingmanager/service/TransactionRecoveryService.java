@@ -0,0 +1,71 @@
+package com.humanbeingmanager.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Finishes file imports whose 2PC coordinator is gone. At startup that is every unfinished transaction
+ * of this node; afterwards, also those of any node that stopped reporting for
+ * {@code import.transactionLog.recoverAfterSeconds}. Live transactions report every minute.
+ */
+@Singleton
+@Startup
+public class TransactionRecoveryService {
+
+    private static final Logger LOGGER = Logger.getLogger(TransactionRecoveryService.class.getName());
+
+    private static final String RECOVER_AFTER_SECONDS_PROP = "import.transactionLog.recoverAfterSeconds";
+    private static final String RETENTION_DAYS_PROP = "import.transactionLog.retentionDays";
+
+    @EJB
+    private DistributedTransactionManager transactionManager;
+
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void recoverAtStartup() {
+        try {
+            recoverAbandoned();
+        } catch (Exception e) {
+            // e.g. the database is not up yet; the schedule tries again
+            LOGGER.log(Level.WARNING, "2PC Recovery at startup failed", e);
+        }
+    }
+
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void recoverPeriodically() {
+        transactionManager.heartbeat();
+        recoverAbandoned();
+
+        long retentionMillis = Long.parseLong(System.getProperty(RETENTION_DAYS_PROP, "7")) * 24 * 60 * 60 * 1000;
+        int purged = transactionManager.purgeFinished(new Date(System.currentTimeMillis() - retentionMillis));
+        if (purged > 0) {
+            LOGGER.log(Level.INFO, "2PC Recovery - Purged {0} finished log entries", purged);
+        }
+    }
+
+    private void recoverAbandoned() {
+        long recoverAfterMillis = Long.parseLong(System.getProperty(RECOVER_AFTER_SECONDS_PROP, "300")) * 1000;
+        List<String> abandoned = transactionManager.findAbandoned(new Date(System.currentTimeMillis() - recoverAfterMillis));
+        if (abandoned.isEmpty()) {
+            return;
+        }
+        LOGGER.log(Level.INFO, "2PC Recovery - {0} unfinished transactions to recover", abandoned.size());
+        for (String transactionId : abandoned) {
+            try {
+                transactionManager.recover(transactionId);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "2PC Recovery - Failed to recover " + transactionId + ", will retry", e);
+            }
+        }
+    }
+}
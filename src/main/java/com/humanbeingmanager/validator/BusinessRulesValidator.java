@@ -5,12 +5,16 @@ import com.humanbeingmanager.entity.HumanBeing;
 import com.humanbeingmanager.entity.Car;
 import com.humanbeingmanager.entity.Coordinates;
 import com.humanbeingmanager.entity.WeaponType;
-import com.humanbeingmanager.dto.CoordinatesDto;
-import com.humanbeingmanager.dto.CarDto;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import com.humanbeingmanager.service.CoordinateOccupancyFilter;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ejb.EJB;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -22,6 +26,9 @@ public class BusinessRulesValidator {
     @EJB
     private HumanBeingDao humanBeingDao;
 
+    @EJB
+    private CoordinateOccupancyFilter occupancyFilter;
+
 
     public void applyMachineGunDefault(HumanBeing humanBeing) {
         if (humanBeing.getWeaponType() == WeaponType.MACHINE_GUN && humanBeing.getImpactSpeed() == 0) {
@@ -30,164 +37,66 @@ public class BusinessRulesValidator {
         }
     }
 
-    public void validateMachineGunRule(HumanBeing humanBeing, StringBuilder errors) {
-        if (humanBeing.getWeaponType() == WeaponType.MACHINE_GUN && humanBeing.getImpactSpeed() < 20) {
-            errors.append("MACHINE_GUN requires impactSpeed >= 20 (current: ")
-                  .append(humanBeing.getImpactSpeed()).append("); ");
-        }
+    public void validateMachineGunRule(HumanBeing humanBeing, ValidationErrors errors) {
+        ValidationRules.machineGun(humanBeing.getWeaponType(), humanBeing.getImpactSpeed(), errors);
     }
 
     
-    public void validateMachineGunRule(HumanBeing humanBeing, boolean isUpdate, Long excludeId, StringBuilder errors) {
+    /**
+     * @param existing the row being updated, already loaded by the caller; {@code null} on create
+     */
+    public void validateMachineGunRule(HumanBeing humanBeing, HumanBeing existing, ValidationErrors errors) {
         if (humanBeing.getWeaponType() != WeaponType.MACHINE_GUN) {
             return;
         }
-        
-        boolean shouldCheck = true;
-        
-        if (isUpdate && excludeId != null) {
-            Optional<HumanBeing> existingOpt = humanBeingDao.findById(excludeId);
-            if (existingOpt.isPresent()) {
-                HumanBeing existing = existingOpt.get();
-                if (existing.getWeaponType() == WeaponType.MACHINE_GUN &&
-                    existing.getImpactSpeed() == humanBeing.getImpactSpeed()) {
-                    shouldCheck = false;
-                }
-            }
-        }
-        
-        if (shouldCheck) {
-            validateMachineGunRule(humanBeing, errors);
-        }
-    }
 
-    
-    public void validateMachineGunRule(WeaponType weaponType, float impactSpeed, StringBuilder errors) {
-        if (weaponType == WeaponType.MACHINE_GUN && impactSpeed < 20) {
-            errors.append("MACHINE_GUN requires impactSpeed >= 20 (current: ")
-                  .append(impactSpeed).append("); ");
-        }
-    }
-    public void validateName(String name, StringBuilder errors) {
-        if (name != null) {
-            String trimmed = name.trim();
-            if (trimmed.length() > 100) {
-                errors.append("Name must be 100 characters or less; ");
-            }
-            if (!trimmed.matches("^[a-zA-Z0-9\\s\\-_.]+$")) {
-                errors.append("Name can only contain letters, numbers, spaces, hyphens, underscores, and periods; ");
-            }
+        if (existing != null && existing.getWeaponType() == WeaponType.MACHINE_GUN &&
+            existing.getImpactSpeed() == humanBeing.getImpactSpeed()) {
+            return;
         }
+
+        validateMachineGunRule(humanBeing, errors);
     }
 
-    
-    public void validateCoordinates(Coordinates coordinates, StringBuilder errors) {
-        if (coordinates != null) {
-            if (coordinates.getX() != null) {
-                if (coordinates.getX() < -1000 || coordinates.getX() > 1000) {
-                    errors.append("X coordinate must be between -1000 and 1000; ");
-                }
-                if (coordinates.getX() == 0) {
-                    errors.append("X coordinate cannot be zero; ");
-                }
-            }
-            
-            if (coordinates.getY() <= -1000) {
-                errors.append("Y coordinate must be greater than -1000; ");
-            }
-            if (coordinates.getY() > 1000) {
-                errors.append("Y coordinate must be at most 1000; ");
-            }
-            if (coordinates.getY() == 0) {
-                errors.append("Y coordinate cannot be zero; ");
-            }
-        }
+    public void validateName(String name, ValidationErrors errors) {
+        ValidationRules.name(name, errors);
     }
 
     
-    public void validateCoordinates(CoordinatesDto coordinates, StringBuilder errors) {
+    public void validateCoordinates(Coordinates coordinates, ValidationErrors errors) {
         if (coordinates != null) {
-            if (coordinates.getX() != null) {
-                if (coordinates.getX() < -1000 || coordinates.getX() > 1000) {
-                    errors.append("X coordinate must be between -1000 and 1000; ");
-                }
-                if (coordinates.getX() == 0) {
-                    errors.append("X coordinate cannot be zero; ");
-                }
-            }
-            
-            if (coordinates.getY() <= -1000) {
-                errors.append("Y coordinate must be greater than -1000; ");
-            }
-            if (coordinates.getY() > 1000) {
-                errors.append("Y coordinate must be at most 1000; ");
-            }
-            if (coordinates.getY() == 0) {
-                errors.append("Y coordinate cannot be zero; ");
-            }
+            ValidationRules.coordinates(coordinates.getX(), coordinates.getY(), errors);
         }
     }
 
     
-    public void validateImpactSpeed(HumanBeing humanBeing, StringBuilder errors) {
-        if (humanBeing.isRealHero() && humanBeing.getImpactSpeed() < 0) {
-            errors.append("Real heroes cannot have negative impact speed; ");
-        }
-        if (humanBeing.getImpactSpeed() < -1000 || humanBeing.getImpactSpeed() > 1000) {
-            errors.append("Impact speed must be between -1000 and 1000; ");
-        }
+    public void validateImpactSpeed(HumanBeing humanBeing, ValidationErrors errors) {
+        ValidationRules.impactSpeed(humanBeing.isRealHero(), humanBeing.getImpactSpeed(), errors);
     }
 
     
-    public void validateMinutesOfWaiting(Long minutesOfWaiting, StringBuilder errors) {
-        if (minutesOfWaiting != null) {
-            if (minutesOfWaiting < 0) {
-                errors.append("Minutes of waiting cannot be negative; ");
-            }
-            if (minutesOfWaiting > 99999) {
-                errors.append("Minutes of waiting must be less than 100,000; ");
-            }
-        }
+    public void validateMinutesOfWaiting(Long minutesOfWaiting, ValidationErrors errors) {
+        ValidationRules.minutesOfWaiting(minutesOfWaiting, errors);
     }
 
     
-    public void validateSoundtrackName(String soundtrackName, StringBuilder errors) {
-        if (soundtrackName != null) {
-            String trimmed = soundtrackName.trim();
-            if (trimmed.length() > 100) {
-                errors.append("Soundtrack name must be 100 characters or less; ");
-            }
-            if (!trimmed.matches("^[a-zA-Z0-9\\s\\-_.]+$")) {
-                errors.append("Soundtrack name can only contain letters, numbers, spaces, hyphens, underscores, and periods; ");
-            }
-        }
+    public void validateSoundtrackName(String soundtrackName, ValidationErrors errors) {
+        ValidationRules.soundtrackName(soundtrackName, errors);
     }
 
     
-    public void validateCar(Car car, StringBuilder errors) {
+    public void validateCar(Car car, ValidationErrors errors) {
         if (car != null) {
-            if (car.getName() != null) {
-                if (car.getName().length() > 50) {
-                    errors.append("Car name must be 50 characters or less; ");
-                }
-                if (!car.getName().matches("^[a-zA-Z0-9\\s\\-_.]*$")) {
-                    errors.append("Car name can only contain letters, numbers, spaces, hyphens, underscores, and periods; ");
-                }
-            }
+            ValidationRules.carName(car.getName(), errors);
         }
     }
 
-    public void validateCar(CarDto car, StringBuilder errors) {
-        if (car != null) {
-            if (car.getName() != null) {
-                if (car.getName().length() > 50) {
-                    errors.append("Car name must be 50 characters or less; ");
-                }
-                if (!car.getName().matches("^[a-zA-Z0-9\\s\\-_.]*$")) {
-                    errors.append("Car name can only contain letters, numbers, spaces, hyphens, underscores, and periods; ");
-                }
-            }
-        }
+    /**
+     * Checks one raw import row: required fields, enum values and the same field rules as the entity path.
+     * Needs no database access.
+     */
+    public void validateImportRow(HumanBeingDto dto, ValidationErrors errors) {
+        ValidationRules.importRow(dto, errors);
     }
 
 
@@ -195,51 +104,51 @@ public class BusinessRulesValidator {
         if (x == null) {
             return false;
         }
+        if (!occupancyFilter.mightContain(x, y)) {
+            return false;
+        }
         Optional<HumanBeing> existing = humanBeingDao.findByCoordinates(x, y, null);
         return existing.isPresent();
     }
 
     
-    public void validateUniqueCoordinates(HumanBeing humanBeing, boolean isUpdate, Long excludeId, StringBuilder errors) {
+    /**
+     * @param existing the row being updated, already loaded by the caller; {@code null} on create
+     */
+    public void validateUniqueCoordinates(HumanBeing humanBeing, HumanBeing existing, ValidationErrors errors) {
         if (humanBeing.getCoordinates() == null || humanBeing.getCoordinates().getX() == null) {
             return; 
         }
-        
-        boolean shouldCheck = true;
-        
-        if (isUpdate && excludeId != null) {
-            Optional<HumanBeing> existingOpt = humanBeingDao.findById(excludeId);
-            if (existingOpt.isPresent()) {
-                HumanBeing existing = existingOpt.get();
-                if (existing.getCoordinates() != null) {
-                    Integer existingX = existing.getCoordinates().getX();
-                    double existingY = existing.getCoordinates().getY();
-                    
-                    if (existingX.equals(humanBeing.getCoordinates().getX()) && 
-                        existingY == humanBeing.getCoordinates().getY()) {
-                        shouldCheck = false;
-                    }
-                }
-            }
+
+        if (existing != null && existing.getCoordinates() != null &&
+            humanBeing.getCoordinates().getX().equals(existing.getCoordinates().getX()) &&
+            humanBeing.getCoordinates().getY() == existing.getCoordinates().getY()) {
+            return;
         }
-        
-        if (shouldCheck) {
-            Optional<HumanBeing> existing = humanBeingDao.findByCoordinates(
-                humanBeing.getCoordinates().getX(),
-                humanBeing.getCoordinates().getY(),
-                excludeId
-            );
-            
-            if (existing.isPresent()) {
-                errors.append("HumanBeing with coordinates (" + 
-                    humanBeing.getCoordinates().getX() + ", " + 
-                    humanBeing.getCoordinates().getY() + 
-                    ") already exists; ");
-            }
+
+        validateCoordinatesAvailable(humanBeing.getCoordinates(), existing != null ? existing.getId() : null, errors);
+    }
+
+    /**
+     * Database uniqueness check without the "unchanged on update" shortcut.
+     * @param excludeId id of the row that may keep these coordinates, or {@code null}
+     */
+    public void validateCoordinatesAvailable(Coordinates coordinates, Long excludeId, ValidationErrors errors) {
+        if (!occupancyFilter.mightContain(coordinates)) {
+            return;
+        }
+        Optional<HumanBeing> duplicate = humanBeingDao.findByCoordinates(
+            coordinates.getX(),
+            coordinates.getY(),
+            excludeId
+        );
+
+        if (duplicate.isPresent()) {
+            errors.add(ValidationErrorCode.COORDINATES_TAKEN, coordinates.getX(), coordinates.getY());
         }
     }
 
-    public void validateBusinessRules(HumanBeing humanBeing, StringBuilder errors) {
+    public void validateBusinessRules(HumanBeing humanBeing, ValidationErrors errors) {
         validateName(humanBeing.getName(), errors);
         validateCoordinates(humanBeing.getCoordinates(), errors);
         validateImpactSpeed(humanBeing, errors);
@@ -249,25 +158,60 @@ public class BusinessRulesValidator {
         validateMachineGunRule(humanBeing, errors);
     }
 
-    public String validateUniqueCoordinatesInImportList(List<HumanBeing> humanBeings, int rowNumber) {
-        HumanBeing current = humanBeings.get(rowNumber - 1);
-        if (current.getCoordinates() == null || current.getCoordinates().getX() == null) {
-            return null;
+    /**
+     * Coordinate uniqueness for an import chunk: one hash pass for duplicates inside the chunk,
+     * then one set-based database lookup for the rest. Rows of earlier chunks are already flushed,
+     * so a clash with them shows up in the lookup. Rows without coordinates are skipped.
+     * @param firstRow row number of the first element, used in the messages
+     * @param errors   receives one record per offending row
+     * @return the number of offending rows
+     */
+    public int validateImportCoordinates(List<HumanBeing> humanBeings, int firstRow, RowErrorSink errors) {
+        return validateImportCoordinates(humanBeings, firstRow, new HashMap<>(humanBeings.size() * 2), errors);
+    }
+
+    /**
+     * The same check carried across chunks that are never written, as in a dry run: {@code seen} maps
+     * each coordinate pair to the first row it appeared in and grows with the file.
+     * {@code null} elements are rows that already failed and are skipped.
+     */
+    public int validateImportCoordinates(List<HumanBeing> humanBeings, int firstRow, Map<Coordinates, Integer> seen,
+                                         RowErrorSink errors) {
+        int offending = 0;
+        List<Coordinates> toCheck = new ArrayList<>(humanBeings.size());
+        for (int i = 0; i < humanBeings.size(); i++) {
+            Coordinates coordinates = coordinatesOf(humanBeings.get(i));
+            if (coordinates == null || coordinates.getX() == null) {
+                continue;
+            }
+            Integer earlier = seen.putIfAbsent(coordinates, firstRow + i);
+            if (earlier != null) {
+                errors.add(firstRow + i, ValidationErrorCode.COORDINATES_DUPLICATE, coordinates.getX(), coordinates.getY(), earlier);
+                offending++;
+            } else if (occupancyFilter.mightContain(coordinates)) {
+                toCheck.add(coordinates);
+            }
         }
 
-        for (int j = rowNumber; j < humanBeings.size(); j++) {
-            HumanBeing other = humanBeings.get(j);
-            if (other.getCoordinates() != null && other.getCoordinates().getX() != null) {
-                if (current.getCoordinates().getX().equals(other.getCoordinates().getX()) &&
-                    current.getCoordinates().getY() == other.getCoordinates().getY()) {
-                    return "Row " + rowNumber + " and Row " + (j + 1) + 
-                           " have duplicate coordinates (" + 
-                           current.getCoordinates().getX() + ", " + 
-                           current.getCoordinates().getY() + ")";
-                }
+        if (toCheck.isEmpty()) {
+            return offending;
+        }
+        Set<Coordinates> taken = humanBeingDao.findExistingCoordinates(toCheck);
+        if (taken.isEmpty()) {
+            return offending;
+        }
+        for (int i = 0; i < humanBeings.size(); i++) {
+            Coordinates coordinates = coordinatesOf(humanBeings.get(i));
+            if (coordinates != null && taken.contains(coordinates) && seen.get(coordinates) == firstRow + i) {
+                errors.add(firstRow + i, ValidationErrorCode.COORDINATES_TAKEN, coordinates.getX(), coordinates.getY());
+                offending++;
             }
         }
-        return null;
+        return offending;
+    }
+
+    private static Coordinates coordinatesOf(HumanBeing humanBeing) {
+        return humanBeing != null ? humanBeing.getCoordinates() : null;
     }
 
 }
@@ -0,0 +1,110 @@
+package com.humanbeingmanager.validator;
+
+import com.humanbeingmanager.dto.HumanBeingDto;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the row-level import rules ({@link ValidationRules#importRow}) as a fork-join pass.
+ * Each row's errors land at the row's own index, so the report keeps file order however
+ * the work was split. Only pure CPU checks belong here; database checks stay serial.
+ */
+@ApplicationScoped
+public class ParallelRowValidator {
+
+    private static final String PARALLELISM_PROP = "import.validation.parallelism";
+
+    /** Rows one task checks without splitting further; also the size below which no pool is used. */
+    private static final int LEAF_ROWS = 128;
+
+    private final int parallelism;
+    private volatile ForkJoinPool pool;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    public ParallelRowValidator() {
+        this(Integer.parseInt(System.getProperty(PARALLELISM_PROP,
+                                                 String.valueOf(Runtime.getRuntime().availableProcessors()))));
+    }
+
+    public ParallelRowValidator(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @return per row, the failed rules or {@code null} if the row is valid
+     */
+    public ValidationErrors[] validate(List<HumanBeingDto> rows) {
+        ValidationErrors[] results = new ValidationErrors[rows.size()];
+        if (parallelism == 1 || rows.size() <= LEAF_ROWS) {
+            validateRange(rows, results, 0, rows.size());
+        } else {
+            pool().invoke(new RowRange(rows, results, 0, rows.size()));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ForkJoinPool current = pool;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    private ForkJoinPool pool() {
+        if (pool == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    // container-managed workers when deployed; plain ones when constructed directly
+                    pool = threadFactory != null
+                        ? new ForkJoinPool(parallelism, threadFactory, null, false)
+                        : new ForkJoinPool(parallelism);
+                }
+            }
+        }
+        return pool;
+    }
+
+    private static void validateRange(List<HumanBeingDto> rows, ValidationErrors[] results, int from, int to) {
+        ValidationErrors errors = new ValidationErrors();
+        for (int i = from; i < to; i++) {
+            ValidationRules.importRow(rows.get(i), errors);
+            if (!errors.isEmpty()) {
+                results[i] = errors;
+                errors = new ValidationErrors();
+            }
+        }
+    }
+
+    private static final class RowRange extends RecursiveAction {
+
+        private final List<HumanBeingDto> rows;
+        private final ValidationErrors[] results;
+        private final int from;
+        private final int to;
+
+        private RowRange(List<HumanBeingDto> rows, ValidationErrors[] results, int from, int to) {
+            this.rows = rows;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_ROWS) {
+                validateRange(rows, results, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RowRange(rows, results, from, middle), new RowRange(rows, results, middle, to));
+        }
+    }
+}
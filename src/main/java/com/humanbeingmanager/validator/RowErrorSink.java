@@ -0,0 +1,8 @@
+package com.humanbeingmanager.validator;
+
+/** Receives import errors as compact records; rendering them is left to the report. */
+public interface RowErrorSink {
+
+    /** @param row 1-based row number in the file */
+    void add(int row, ValidationErrorCode code, Object... args);
+}
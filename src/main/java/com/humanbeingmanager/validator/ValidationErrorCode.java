@@ -0,0 +1,61 @@
+package com.humanbeingmanager.validator;
+
+/**
+ * Business-rule failures. Messages are templates; arguments are only formatted when a report is rendered.
+ */
+public enum ValidationErrorCode {
+
+    NAME_REQUIRED("name", "Name is required"),
+    NAME_TOO_LONG("name", "Name must be 100 characters or less"),
+    NAME_INVALID_CHARACTERS("name", "Name can only contain letters, numbers, spaces, hyphens, underscores, and periods"),
+
+    COORDINATES_REQUIRED("coordinates", "Coordinates are required"),
+    X_REQUIRED("coordinates.x", "Coordinates X is required"),
+    X_OUT_OF_RANGE("coordinates.x", "X coordinate must be between -1000 and 1000"),
+    X_ZERO("coordinates.x", "X coordinate cannot be zero"),
+    Y_TOO_SMALL("coordinates.y", "Y coordinate must be greater than -1000"),
+    Y_TOO_LARGE("coordinates.y", "Y coordinate must be at most 1000"),
+    Y_ZERO("coordinates.y", "Y coordinate cannot be zero"),
+    COORDINATES_TAKEN("coordinates", "HumanBeing with coordinates (%s, %s) already exists"),
+    COORDINATES_DUPLICATE("coordinates", "Coordinates (%s, %s) repeat those of row %s"),
+
+    CAR_REQUIRED("car", "Car is required"),
+    CAR_NAME_REQUIRED("car.name", "Car name is required"),
+    CAR_NOT_FOUND("car.id", "Car with ID %s not found"),
+    CAR_NAME_TOO_LONG("car.name", "Car name must be 50 characters or less"),
+    CAR_NAME_INVALID_CHARACTERS("car.name", "Car name can only contain letters, numbers, spaces, hyphens, underscores, and periods"),
+
+    MOOD_REQUIRED("mood", "Mood is required"),
+    MOOD_INVALID("mood", "Invalid mood value"),
+
+    WEAPON_TYPE_REQUIRED("weaponType", "Weapon type is required"),
+    WEAPON_TYPE_INVALID("weaponType", "Invalid weapon type value"),
+    MACHINE_GUN_IMPACT_SPEED("impactSpeed", "MACHINE_GUN requires impactSpeed >= 20 (current: %s)"),
+
+    REAL_HERO_NEGATIVE_IMPACT_SPEED("impactSpeed", "Real heroes cannot have negative impact speed"),
+    IMPACT_SPEED_OUT_OF_RANGE("impactSpeed", "Impact speed must be between -1000 and 1000"),
+
+    SOUNDTRACK_NAME_REQUIRED("soundtrackName", "Soundtrack name is required"),
+    SOUNDTRACK_NAME_TOO_LONG("soundtrackName", "Soundtrack name must be 100 characters or less"),
+    SOUNDTRACK_NAME_INVALID_CHARACTERS("soundtrackName", "Soundtrack name can only contain letters, numbers, spaces, hyphens, underscores, and periods"),
+
+    MINUTES_OF_WAITING_REQUIRED("minutesOfWaiting", "Minutes of waiting is required"),
+    MINUTES_OF_WAITING_NEGATIVE("minutesOfWaiting", "Minutes of waiting cannot be negative"),
+    MINUTES_OF_WAITING_TOO_LARGE("minutesOfWaiting", "Minutes of waiting must be less than 100,000");
+
+    private final String field;
+    private final String template;
+
+    ValidationErrorCode(String field, String template) {
+        this.field = field;
+        this.template = template;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String render(Object[] args) {
+        return args == null || args.length == 0 ? template : String.format(template, args);
+    }
+}
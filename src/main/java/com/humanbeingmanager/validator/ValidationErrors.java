@@ -0,0 +1,76 @@
+package com.humanbeingmanager.validator;
+
+import com.humanbeingmanager.exception.ValidationException;
+import java.util.Arrays;
+
+/**
+ * Collects rule failures as codes; the passing path allocates nothing beyond this object.
+ */
+public final class ValidationErrors {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private ValidationErrorCode[] codes = new ValidationErrorCode[4];
+    private Object[][] args = new Object[4][];
+    private int size;
+
+    public void add(ValidationErrorCode code) {
+        add(code, NO_ARGS);
+    }
+
+    public void add(ValidationErrorCode code, Object... arguments) {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+            args = Arrays.copyOf(args, size * 2);
+        }
+        codes[size] = code;
+        args[size] = arguments;
+        size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ValidationErrorCode getCode(int index) {
+        return codes[index];
+    }
+
+    public Object[] getArgs(int index) {
+        return args[index];
+    }
+
+    public String getMessage(int index) {
+        return codes[index].render(args[index]);
+    }
+
+    public void clear() {
+        Arrays.fill(codes, 0, size, null);
+        Arrays.fill(args, 0, size, null);
+        size = 0;
+    }
+
+    /** Renders the historical "message; message; " form used in API error texts. */
+    public String render() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            text.append(getMessage(i)).append("; ");
+        }
+        return text.toString();
+    }
+
+    public void throwIfAny() throws ValidationException {
+        if (size > 0) {
+            throw new ValidationException(render());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
@@ -0,0 +1,187 @@
+package com.humanbeingmanager.validator;
+
+import com.humanbeingmanager.dto.CarDto;
+import com.humanbeingmanager.dto.CoordinatesDto;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import com.humanbeingmanager.entity.Mood;
+import com.humanbeingmanager.entity.WeaponType;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Single definition of every field rule. Rules take plain values so entity and DTO
+ * callers share them; patterns and enum lookups are built once.
+ */
+public final class ValidationRules {
+
+    private static final Pattern TEXT = Pattern.compile("^[a-zA-Z0-9\\s\\-_.]+$");
+    private static final Pattern CAR_NAME = Pattern.compile("^[a-zA-Z0-9\\s\\-_.]*$");
+
+    private static final Map<String, Mood> MOODS = byName(Mood.values());
+    private static final Map<String, WeaponType> WEAPON_TYPES = byName(WeaponType.values());
+
+    private ValidationRules() {
+    }
+
+    public static void name(String name, ValidationErrors errors) {
+        if (name != null) {
+            String trimmed = name.trim();
+            if (trimmed.length() > 100) {
+                errors.add(ValidationErrorCode.NAME_TOO_LONG);
+            }
+            if (!TEXT.matcher(trimmed).matches()) {
+                errors.add(ValidationErrorCode.NAME_INVALID_CHARACTERS);
+            }
+        }
+    }
+
+    public static void coordinates(Integer x, double y, ValidationErrors errors) {
+        if (x != null) {
+            if (x < -1000 || x > 1000) {
+                errors.add(ValidationErrorCode.X_OUT_OF_RANGE);
+            }
+            if (x == 0) {
+                errors.add(ValidationErrorCode.X_ZERO);
+            }
+        }
+        if (y <= -1000) {
+            errors.add(ValidationErrorCode.Y_TOO_SMALL);
+        }
+        if (y > 1000) {
+            errors.add(ValidationErrorCode.Y_TOO_LARGE);
+        }
+        if (y == 0) {
+            errors.add(ValidationErrorCode.Y_ZERO);
+        }
+    }
+
+    public static void impactSpeed(boolean realHero, float impactSpeed, ValidationErrors errors) {
+        if (realHero && impactSpeed < 0) {
+            errors.add(ValidationErrorCode.REAL_HERO_NEGATIVE_IMPACT_SPEED);
+        }
+        if (impactSpeed < -1000 || impactSpeed > 1000) {
+            errors.add(ValidationErrorCode.IMPACT_SPEED_OUT_OF_RANGE);
+        }
+    }
+
+    public static void machineGun(WeaponType weaponType, float impactSpeed, ValidationErrors errors) {
+        if (weaponType == WeaponType.MACHINE_GUN && impactSpeed < 20) {
+            errors.add(ValidationErrorCode.MACHINE_GUN_IMPACT_SPEED, impactSpeed);
+        }
+    }
+
+    public static void minutesOfWaiting(Long minutesOfWaiting, ValidationErrors errors) {
+        if (minutesOfWaiting != null) {
+            if (minutesOfWaiting < 0) {
+                errors.add(ValidationErrorCode.MINUTES_OF_WAITING_NEGATIVE);
+            }
+            if (minutesOfWaiting > 99999) {
+                errors.add(ValidationErrorCode.MINUTES_OF_WAITING_TOO_LARGE);
+            }
+        }
+    }
+
+    public static void soundtrackName(String soundtrackName, ValidationErrors errors) {
+        if (soundtrackName != null) {
+            String trimmed = soundtrackName.trim();
+            if (trimmed.length() > 100) {
+                errors.add(ValidationErrorCode.SOUNDTRACK_NAME_TOO_LONG);
+            }
+            if (!TEXT.matcher(trimmed).matches()) {
+                errors.add(ValidationErrorCode.SOUNDTRACK_NAME_INVALID_CHARACTERS);
+            }
+        }
+    }
+
+    public static void carName(String carName, ValidationErrors errors) {
+        if (carName != null) {
+            if (carName.length() > 50) {
+                errors.add(ValidationErrorCode.CAR_NAME_TOO_LONG);
+            }
+            if (!CAR_NAME.matcher(carName).matches()) {
+                errors.add(ValidationErrorCode.CAR_NAME_INVALID_CHARACTERS);
+            }
+        }
+    }
+
+    /**
+     * Every rule of one raw import row: required fields, enum values and the field rules above.
+     * Touches nothing but the row, so rows can be checked on any thread.
+     */
+    public static void importRow(HumanBeingDto dto, ValidationErrors errors) {
+        if (isBlank(dto.getName())) {
+            errors.add(ValidationErrorCode.NAME_REQUIRED);
+        }
+
+        CoordinatesDto coordinates = dto.getCoordinates();
+        if (coordinates == null) {
+            errors.add(ValidationErrorCode.COORDINATES_REQUIRED);
+        } else if (coordinates.getX() == null) {
+            errors.add(ValidationErrorCode.X_REQUIRED);
+        }
+
+        CarDto car = dto.getCar();
+        if (car == null) {
+            errors.add(ValidationErrorCode.CAR_REQUIRED);
+        } else if (isBlank(car.getName())) {
+            errors.add(ValidationErrorCode.CAR_NAME_REQUIRED);
+        }
+
+        if (isBlank(dto.getMood())) {
+            errors.add(ValidationErrorCode.MOOD_REQUIRED);
+        } else if (parseMood(dto.getMood()) == null) {
+            errors.add(ValidationErrorCode.MOOD_INVALID);
+        }
+
+        WeaponType weaponType = null;
+        if (isBlank(dto.getWeaponType())) {
+            errors.add(ValidationErrorCode.WEAPON_TYPE_REQUIRED);
+        } else {
+            weaponType = parseWeaponType(dto.getWeaponType());
+            if (weaponType == null) {
+                errors.add(ValidationErrorCode.WEAPON_TYPE_INVALID);
+            }
+        }
+        machineGun(weaponType, dto.getImpactSpeed(), errors);
+
+        if (isBlank(dto.getSoundtrackName())) {
+            errors.add(ValidationErrorCode.SOUNDTRACK_NAME_REQUIRED);
+        }
+        if (dto.getMinutesOfWaiting() == null) {
+            errors.add(ValidationErrorCode.MINUTES_OF_WAITING_REQUIRED);
+        }
+
+        name(dto.getName(), errors);
+        soundtrackName(dto.getSoundtrackName(), errors);
+        if (car != null) {
+            carName(car.getName(), errors);
+        }
+        minutesOfWaiting(dto.getMinutesOfWaiting(), errors);
+        if (coordinates != null) {
+            coordinates(coordinates.getX(), coordinates.getY(), errors);
+        }
+    }
+
+    /** Case-insensitive lookup without the exception {@code Enum.valueOf} throws on a miss; {@code null} if unknown. */
+    public static Mood parseMood(String value) {
+        return MOODS.get(value.toUpperCase(Locale.ROOT));
+    }
+
+    public static WeaponType parseWeaponType(String value) {
+        return WEAPON_TYPES.get(value.toUpperCase(Locale.ROOT));
+    }
+
+    public static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static <E extends Enum<E>> Map<String, E> byName(E[] values) {
+        Map<String, E> map = new HashMap<>();
+        for (E value : values) {
+            map.put(value.name(), value);
+        }
+        return map;
+    }
+}
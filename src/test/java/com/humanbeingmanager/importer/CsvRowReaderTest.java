@@ -0,0 +1,103 @@
+package com.humanbeingmanager.importer;
+
+import com.humanbeingmanager.dto.HumanBeingDto;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CsvRowReaderTest {
+
+    @Test
+    public void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        List<HumanBeingDto> rows = read("name,soundtrackName,car.name\n" +
+                                        "\"Smith, John\",\"The \"\"Best\"\" Song\",Car\n");
+
+        assertEquals(1, rows.size());
+        assertEquals("Smith, John", rows.get(0).getName());
+        assertEquals("The \"Best\" Song", rows.get(0).getSoundtrackName());
+        assertEquals("Car", rows.get(0).getCar().getName());
+    }
+
+    @Test
+    public void quotedFieldMaySpanLines() throws IOException {
+        List<HumanBeingDto> rows = read("name,mood\n\"two\nlines\",CALM\nnext,RAGE\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("two\nlines", rows.get(0).getName());
+        assertEquals("next", rows.get(1).getName());
+    }
+
+    @Test
+    public void crlfLineEndsAreNotPartOfTheLastField() throws IOException {
+        List<HumanBeingDto> rows = read("name,mood\r\nfirst,CALM\r\nsecond,RAGE\r\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("CALM", rows.get(0).getMood());
+        assertEquals("second", rows.get(1).getName());
+        assertEquals("RAGE", rows.get(1).getMood());
+    }
+
+    @Test
+    public void byteOrderMarkIsSkipped() throws IOException {
+        List<HumanBeingDto> rows = read("\uFEFFname,coordinates.x,coordinates.y\nBom,5,2.5\n");
+
+        assertEquals(1, rows.size());
+        assertEquals("Bom", rows.get(0).getName());
+        assertEquals(Integer.valueOf(5), rows.get(0).getCoordinates().getX());
+        assertEquals(2.5, rows.get(0).getCoordinates().getY(), 0.0);
+    }
+
+    @Test
+    public void emptyFieldIsMissingAndBlankLinesAreSkipped() throws IOException {
+        List<HumanBeingDto> rows = read("name,minutesOfWaiting\n\nNobody,\n\n");
+
+        assertEquals(1, rows.size());
+        assertNull(rows.get(0).getMinutesOfWaiting());
+    }
+
+    @Test
+    public void wrongFieldCountIsReportedWithRowNumber() throws IOException {
+        try (CsvRowReader reader = reader("name,mood\nok,CALM\ntoo,many,fields\n")) {
+            reader.next();
+            try {
+                reader.next();
+                fail("expected a field count error");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("row 2"));
+                assertTrue(e.getMessage(), e.getMessage().contains("expected 2 fields, found 3"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unterminatedQuoteIsRejected() throws IOException {
+        read("name\n\"open\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownColumnIsRejected() throws IOException {
+        read("name,nickname\nA,B\n");
+    }
+
+    private static List<HumanBeingDto> read(String csv) throws IOException {
+        List<HumanBeingDto> rows = new ArrayList<>();
+        try (CsvRowReader reader = reader(csv)) {
+            while (reader.hasNext()) {
+                rows.add(reader.next());
+            }
+        }
+        return rows;
+    }
+
+    private static CsvRowReader reader(String csv) {
+        return new CsvRowReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
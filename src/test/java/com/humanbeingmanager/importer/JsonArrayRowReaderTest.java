@@ -0,0 +1,64 @@
+package com.humanbeingmanager.importer;
+
+import com.humanbeingmanager.dto.HumanBeingDto;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonArrayRowReaderTest {
+
+    @Test
+    public void readsEachElement() throws IOException {
+        List<HumanBeingDto> rows = read("[{\"name\":\"A\"},{\"name\":\"B\"}]\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("A", rows.get(0).getName());
+        assertEquals("B", rows.get(1).getName());
+    }
+
+    @Test
+    public void emptyArrayHasNoRows() throws IOException {
+        assertEquals(0, read(" [ ] ").size());
+    }
+
+    @Test
+    public void trailingTextIsRejected() throws IOException {
+        assertRejected("[{\"name\":\"A\"}] garbage");
+    }
+
+    @Test
+    public void secondArrayIsRejected() throws IOException {
+        assertRejected("[{\"name\":\"A\"}][{\"name\":\"B\"}]");
+    }
+
+    @Test
+    public void nonObjectElementIsRejected() throws IOException {
+        assertRejected("[{\"name\":\"A\"}, 42]");
+    }
+
+    private static void assertRejected(String json) throws IOException {
+        try {
+            read(json);
+            fail("expected " + json + " to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid JSON format"));
+        }
+    }
+
+    private static List<HumanBeingDto> read(String json) throws IOException {
+        List<HumanBeingDto> rows = new ArrayList<>();
+        try (JsonArrayRowReader reader = new JsonArrayRowReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            while (reader.hasNext()) {
+                rows.add(reader.next());
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,41 @@
+package com.humanbeingmanager.rest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ImportResourceClientAddressTest {
+
+    private static final Set<String> PROXIES = new HashSet<>(Arrays.asList("10.0.0.1", "10.0.0.2"));
+
+    @Test
+    public void forwardedForIsIgnoredWithoutTrustedProxies() {
+        assertEquals("203.0.113.7",
+                     ImportResource.clientAddress("203.0.113.7", "198.51.100.1", Collections.emptySet()));
+    }
+
+    @Test
+    public void forwardedForIsIgnoredFromAnUntrustedPeer() {
+        assertEquals("203.0.113.7", ImportResource.clientAddress("203.0.113.7", "198.51.100.1", PROXIES));
+    }
+
+    @Test
+    public void trustedProxyNamesTheClient() {
+        assertEquals("198.51.100.1", ImportResource.clientAddress("10.0.0.1", "198.51.100.1", PROXIES));
+    }
+
+    @Test
+    public void spoofedLeftmostHopsAreSkipped() {
+        assertEquals("198.51.100.1",
+                     ImportResource.clientAddress("10.0.0.1", "1.2.3.4, 198.51.100.1, 10.0.0.2", PROXIES));
+    }
+
+    @Test
+    public void missingHeaderFallsBackToThePeer() {
+        assertEquals("10.0.0.1", ImportResource.clientAddress("10.0.0.1", null, PROXIES));
+    }
+}
@@ -0,0 +1,83 @@
+package com.humanbeingmanager.rest;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ImportResourceRangeTest {
+
+    private static final String ETAG = "\"5d41402abc4b2a76\"";
+    private static final ZonedDateTime LAST_MODIFIED = ZonedDateTime.of(2024, 3, 1, 12, 30, 15, 0, ZoneOffset.UTC);
+
+    @Test
+    public void closedRange() {
+        assertArrayEquals(new long[]{0, 99}, ImportResource.parseRange("bytes=0-99", 1000));
+    }
+
+    @Test
+    public void openEndedRangeRunsToTheLastByte() {
+        assertArrayEquals(new long[]{100, 999}, ImportResource.parseRange("bytes=100-", 1000));
+    }
+
+    @Test
+    public void lastPositionPastTheEndIsClamped() {
+        assertArrayEquals(new long[]{900, 999}, ImportResource.parseRange("bytes=900-5000", 1000));
+    }
+
+    @Test
+    public void suffixRangeIsTheLastBytes() {
+        assertArrayEquals(new long[]{500, 999}, ImportResource.parseRange("bytes=-500", 1000));
+    }
+
+    @Test
+    public void suffixLongerThanTheFileIsTheWholeFile() {
+        assertArrayEquals(new long[]{0, 999}, ImportResource.parseRange("bytes=-5000", 1000));
+    }
+
+    @Test
+    public void unsatisfiableRangesGiveAnEmptySlice() {
+        // the caller answers these with 416 and Content-Range: bytes */size
+        assertEquals(0, ImportResource.parseRange("bytes=1000-", 1000).length);
+        assertEquals(0, ImportResource.parseRange("bytes=-0", 1000).length);
+        assertEquals(0, ImportResource.parseRange("bytes=-10", 0).length);
+    }
+
+    @Test
+    public void multipleRangesAreIgnored() {
+        // served whole with 200 rather than as multipart/byteranges
+        assertNull(ImportResource.parseRange("bytes=0-9,20-29", 1000));
+        assertNull(ImportResource.parseRange("bytes=-10, 0-5", 1000));
+    }
+
+    @Test
+    public void malformedRangesAreIgnored() {
+        assertNull(ImportResource.parseRange("items=0-9", 1000));
+        assertNull(ImportResource.parseRange("bytes=abc", 1000));
+        assertNull(ImportResource.parseRange("bytes=x-9", 1000));
+        assertNull(ImportResource.parseRange("bytes=50-10", 1000));
+    }
+
+    @Test
+    public void ifRangeEntityTagMustMatchStrongly() {
+        assertTrue(ImportResource.ifRangeMatches(ETAG, ETAG, LAST_MODIFIED));
+        assertFalse(ImportResource.ifRangeMatches("\"other\"", ETAG, LAST_MODIFIED));
+        assertFalse(ImportResource.ifRangeMatches("W/" + ETAG, ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    public void ifRangeDateMustEqualTheModificationTime() {
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(LAST_MODIFIED);
+        String later = DateTimeFormatter.RFC_1123_DATE_TIME.format(LAST_MODIFIED.plusSeconds(1));
+
+        assertTrue(ImportResource.ifRangeMatches(date, ETAG, LAST_MODIFIED));
+        assertFalse(ImportResource.ifRangeMatches(later, ETAG, LAST_MODIFIED));
+        assertFalse(ImportResource.ifRangeMatches("yesterday", ETAG, LAST_MODIFIED));
+    }
+}
@@ -0,0 +1,79 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.service.DistributedTransactionManager.Phase;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import org.junit.Test;
+
+import static com.humanbeingmanager.service.DistributedTransactionManager.Phase.ACTIVE;
+import static com.humanbeingmanager.service.DistributedTransactionManager.Phase.COMMITTED;
+import static com.humanbeingmanager.service.DistributedTransactionManager.Phase.COMMITTING;
+import static com.humanbeingmanager.service.DistributedTransactionManager.Phase.DB_PREPARED;
+import static com.humanbeingmanager.service.DistributedTransactionManager.Phase.PREPARED;
+import static com.humanbeingmanager.service.DistributedTransactionManager.Phase.ROLLED_BACK;
+import static com.humanbeingmanager.service.DistributedTransactionManager.Phase.STORAGE_PREPARED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** The full transition table: every phase against every step, {@code null} where the step is refused. */
+public class DistributedTransactionManagerPhaseTest {
+
+    @Test
+    public void storageVote() {
+        assertTable(Phase::withStorage, table(
+            STORAGE_PREPARED, STORAGE_PREPARED, PREPARED, PREPARED, null, null, null));
+    }
+
+    @Test
+    public void databaseVote() {
+        assertTable(Phase::withDb, table(
+            DB_PREPARED, PREPARED, DB_PREPARED, PREPARED, null, null, null));
+    }
+
+    @Test
+    public void commitDecisionNeedsBothVotes() {
+        assertTable(Phase::decided, table(
+            null, null, null, COMMITTING, COMMITTING, null, null));
+    }
+
+    @Test
+    public void rollbackOnlyBeforeTheDecision() {
+        assertTable(Phase::aborted, table(
+            ROLLED_BACK, ROLLED_BACK, ROLLED_BACK, ROLLED_BACK, null, null, null));
+    }
+
+    @Test
+    public void votingEndsWithTheDecision() {
+        assertTrue(ACTIVE.isVoting());
+        assertTrue(STORAGE_PREPARED.isVoting());
+        assertTrue(DB_PREPARED.isVoting());
+        assertTrue(PREPARED.isVoting());
+        assertFalse(COMMITTING.isVoting());
+        assertFalse(COMMITTED.isVoting());
+        assertFalse(ROLLED_BACK.isVoting());
+    }
+
+    @Test
+    public void votesArriveInEitherOrder() {
+        assertEquals(COMMITTING, ACTIVE.withStorage().withDb().decided());
+        assertEquals(COMMITTING, ACTIVE.withDb().withStorage().decided());
+    }
+
+    /** Expected results in declaration order: ACTIVE, STORAGE_PREPARED, DB_PREPARED, PREPARED, COMMITTING, COMMITTED, ROLLED_BACK. */
+    private static Map<Phase, Phase> table(Phase... next) {
+        assertEquals(Phase.values().length, next.length);
+        Map<Phase, Phase> table = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            table.put(phase, next[phase.ordinal()]);
+        }
+        return table;
+    }
+
+    private static void assertTable(UnaryOperator<Phase> step, Map<Phase, Phase> expected) {
+        for (Phase phase : Phase.values()) {
+            assertEquals("from " + phase, expected.get(phase), step.apply(phase));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.humanbeingmanager.service;
+
+import com.humanbeingmanager.exception.ImportRejectedException;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ImportAdmissionControllerTest {
+
+    private static final String[] PROPERTIES = {
+        "import.admission.maxConcurrent", "import.admission.queueCapacity",
+        "import.admission.maxQueuedPerClient", "import.admission.maxWaitMs"
+    };
+
+    @After
+    public void clearProperties() {
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void admitsRightAwayWhileSlotsAreFree() throws Exception {
+        ImportAdmissionController controller = controller(2, 4, 4, 1000);
+
+        ImportAdmissionController.Ticket first = controller.enqueue("a");
+        ImportAdmissionController.Ticket second = controller.enqueue("b");
+        ImportAdmissionController.Ticket third = controller.enqueue("c");
+
+        assertTrue(first.admission().isDone());
+        assertTrue(second.admission().isDone());
+        assertFalse(third.admission().isDone());
+
+        first.release();
+        assertTrue(third.admission().isDone());
+    }
+
+    @Test
+    public void waitingClientsAreAdmittedInTurn() throws Exception {
+        ImportAdmissionController controller = controller(1, 10, 10, 1000);
+        ImportAdmissionController.Ticket running = controller.enqueue("burst");
+        ImportAdmissionController.Ticket burst1 = controller.enqueue("burst");
+        ImportAdmissionController.Ticket burst2 = controller.enqueue("burst");
+        ImportAdmissionController.Ticket burst3 = controller.enqueue("burst");
+        ImportAdmissionController.Ticket other = controller.enqueue("other");
+
+        running.release();
+        assertTrue(burst1.admission().isDone());
+        assertFalse(other.admission().isDone());
+
+        // the burst went to the back of the line, so the other client is next
+        burst1.release();
+        assertTrue(other.admission().isDone());
+        assertFalse(burst2.admission().isDone());
+
+        other.release();
+        assertTrue(burst2.admission().isDone());
+        burst2.release();
+        assertTrue(burst3.admission().isDone());
+    }
+
+    @Test
+    public void clientCannotQueueMoreThanItsShare() throws Exception {
+        ImportAdmissionController controller = controller(1, 10, 2, 1000);
+        controller.enqueue("busy");
+        controller.enqueue("greedy");
+        controller.enqueue("greedy");
+
+        try {
+            controller.enqueue("greedy");
+            fail("expected the per-client cap to reject");
+        } catch (ImportRejectedException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("for this client"));
+            assertTrue(e.getRetryAfterSeconds() >= 1);
+        }
+        // everyone else still gets a place
+        assertFalse(controller.enqueue("polite").admission().isDone());
+        assertEquals(3, controller.getMetrics().get("queueDepth"));
+    }
+
+    @Test
+    public void fullQueueRejects() throws Exception {
+        ImportAdmissionController controller = controller(1, 1, 5, 1000);
+        controller.enqueue("a");
+        controller.enqueue("b");
+
+        try {
+            controller.enqueue("c");
+            fail("expected the full queue to reject");
+        } catch (ImportRejectedException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Too many imports in progress"));
+        }
+        assertEquals(1L, controller.getMetrics().get("rejected"));
+    }
+
+    @Test
+    public void timedOutWaitGivesUpItsPlace() throws Exception {
+        ImportAdmissionController controller = controller(1, 1, 1, 50);
+        ImportAdmissionController.Ticket running = controller.enqueue("a");
+        ImportAdmissionController.Ticket waiting = controller.enqueue("b");
+
+        try {
+            waiting.await();
+            fail("expected the wait to time out");
+        } catch (ImportRejectedException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not admitted within 50 ms"));
+        }
+        assertEquals(0, controller.getMetrics().get("queueDepth"));
+        assertEquals(1L, controller.getMetrics().get("timedOut"));
+
+        // the freed place can be taken again, and the timed-out ticket is never admitted
+        ImportAdmissionController.Ticket next = controller.enqueue("b");
+        running.release();
+        assertFalse(waiting.admission().isDone());
+        assertTrue(next.admission().isDone());
+        assertEquals(1, controller.getMetrics().get("running"));
+
+        // releasing again is harmless
+        waiting.release();
+        next.release();
+        assertEquals(0, controller.getMetrics().get("running"));
+        assertEquals(0, controller.getMetrics().get("queueDepth"));
+    }
+
+    private static ImportAdmissionController controller(int maxConcurrent, int queueCapacity, int maxQueuedPerClient,
+                                                        long maxWaitMs) {
+        System.setProperty("import.admission.maxConcurrent", String.valueOf(maxConcurrent));
+        System.setProperty("import.admission.queueCapacity", String.valueOf(queueCapacity));
+        System.setProperty("import.admission.maxQueuedPerClient", String.valueOf(maxQueuedPerClient));
+        System.setProperty("import.admission.maxWaitMs", String.valueOf(maxWaitMs));
+        ImportAdmissionController controller = new ImportAdmissionController();
+        controller.init();
+        return controller;
+    }
+}
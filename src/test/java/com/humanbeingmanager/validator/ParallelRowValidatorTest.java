@@ -0,0 +1,88 @@
+package com.humanbeingmanager.validator;
+
+import com.humanbeingmanager.dto.CarDto;
+import com.humanbeingmanager.dto.CoordinatesDto;
+import com.humanbeingmanager.dto.HumanBeingDto;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ParallelRowValidatorTest {
+
+    private static final Set<Integer> INVALID_ROWS = new HashSet<>(Arrays.asList(0, 127, 128, 129, 500, 1023));
+
+    private ParallelRowValidator validator;
+
+    @After
+    public void tearDown() {
+        if (validator != null) {
+            validator.shutdown();
+        }
+    }
+
+    @Test
+    public void forkJoinPassKeepsErrorsAtTheirRowIndex() {
+        validator = new ParallelRowValidator(4);
+        List<HumanBeingDto> rows = rows(1024);
+
+        ValidationErrors[] results = validator.validate(rows);
+
+        assertEquals(rows.size(), results.length);
+        for (int i = 0; i < results.length; i++) {
+            if (INVALID_ROWS.contains(i)) {
+                assertNotNull("row " + i + " should fail", results[i]);
+                assertEquals("row " + i, ValidationErrorCode.X_ZERO, results[i].getCode(0));
+            } else {
+                assertNull("row " + i + " should pass", results[i]);
+            }
+        }
+    }
+
+    @Test
+    public void parallelAndSerialPassesAgree() {
+        List<HumanBeingDto> rows = rows(1000);
+        ParallelRowValidator serial = new ParallelRowValidator(1);
+        validator = new ParallelRowValidator(8);
+
+        ValidationErrors[] expected = serial.validate(rows);
+        ValidationErrors[] actual = validator.validate(rows);
+
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("row " + i, String.valueOf(expected[i]), String.valueOf(actual[i]));
+        }
+    }
+
+    @Test
+    public void smallBatchIsCheckedInline() {
+        validator = new ParallelRowValidator(4);
+        List<HumanBeingDto> rows = rows(3);
+        rows.get(1).setName(" ");
+
+        ValidationErrors[] results = validator.validate(rows);
+
+        assertEquals(ValidationErrorCode.X_ZERO, results[0].getCode(0));
+        assertEquals(ValidationErrorCode.NAME_REQUIRED, results[1].getCode(0));
+        assertNull(results[2]);
+    }
+
+    /** Valid rows, except those in {@link #INVALID_ROWS} which get x = 0. */
+    private static List<HumanBeingDto> rows(int count) {
+        List<HumanBeingDto> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = INVALID_ROWS.contains(i) ? 0 : i % 1000 + 1;
+            rows.add(new HumanBeingDto(null, "Row " + i, new CoordinatesDto(x, 1.5), null,
+                                       false, Boolean.TRUE, new CarDto(null, "Car " + i, true), "CALM",
+                                       10f, "Track " + i, 5L, "AXE"));
+        }
+        return rows;
+    }
+}